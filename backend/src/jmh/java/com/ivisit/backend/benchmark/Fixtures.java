@@ -0,0 +1,168 @@
+package com.ivisit.backend.benchmark;
+
+import com.ivisit.backend.model.*;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Deterministic object graphs shaped like a busy campus: gates and
+ * buildings, guards assigned to them, visitors with passes, and visitor
+ * logs with N checkpoint entries each. The same seed always gives the same
+ * graph, so results stay comparable across runs and releases.
+ */
+public class Fixtures {
+
+    private static final String[] FIRST_NAMES = {
+            "Juan", "Maria", "Jose", "Ana", "Mark", "Angelica", "John Paul", "Kristine",
+            "Miguel", "Patricia", "Rafael", "Jasmine", "Carlo", "Bea", "Paolo", "Camille"
+    };
+    private static final String[] LAST_NAMES = {
+            "Dela Cruz", "Santos", "Reyes", "Garcia", "Mendoza", "Bautista", "Villanueva",
+            "Ramos", "Aquino", "Castillo", "Fernandez", "Del Rosario", "Gonzales", "Lim"
+    };
+    private static final String[] ID_TYPES = {
+            "National ID", "Driver's License", "PhilHealth ID", "UMID", "Passport", "Student ID"
+    };
+    private static final String[] PURPOSES = {
+            "Enrollment", "Meeting with faculty", "Delivery", "Document request",
+            "Campus tour", "Interview, HR office", "Event \"Career Fair\""
+    };
+
+    private static final long HOUR_MS = 60L * 60L * 1000L;
+
+    public final List<Station> stations = new ArrayList<>();
+    public final List<UserAccount> guards = new ArrayList<>();
+    public final List<Visitor> visitors = new ArrayList<>();
+    public final List<VisitorPass> passes = new ArrayList<>();
+    public final List<VisitorLog> logs = new ArrayList<>();
+    public final List<VisitorLogEntry> entries = new ArrayList<>();
+
+    private final Random random;
+    private final long now = System.currentTimeMillis();
+
+    private Fixtures(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * A full graph: stations, guards, visitors (one pass each) and logs
+     * spread over the last maxAgeHours, each with entriesPerLog entries.
+     */
+    public static Fixtures build(long seed, int stationCount, int visitorCount, int logCount,
+                                 int entriesPerLog, int maxAgeHours) {
+        Fixtures f = new Fixtures(seed);
+        f.addStations(stationCount);
+        f.addGuards(Math.max(1, stationCount / 2));
+        f.addVisitors(visitorCount);
+        f.addLogs(logCount, entriesPerLog, maxAgeHours);
+        return f;
+    }
+
+    /**
+     * Stations only, in insertion (id) order like findAll() returns them.
+     */
+    public static List<Station> stations(long seed, int count) {
+        Fixtures f = new Fixtures(seed);
+        f.addStations(count);
+        return f.stations;
+    }
+
+    private void addStations(int count) {
+        long id = 1;
+        for (int i = 0; i < count; i++) {
+            Station s;
+            switch (random.nextInt(4)) {
+                case 0:
+                    s = new Station("Gate " + (1 + random.nextInt(12)) + suffix(), "GATE", true);
+                    break;
+                case 1:
+                    s = new Station("Main Gate " + (char) ('A' + random.nextInt(4)) + " #" + i, "gate", true);
+                    break;
+                case 2:
+                    s = new Station("Building " + (char) ('A' + random.nextInt(26)) + "-" + i, "BUILDING", true);
+                    break;
+                default:
+                    s = new Station(LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " Hall " + i, null, true);
+                    break;
+            }
+            s.setId(id++);
+            stations.add(s);
+        }
+    }
+
+    private String suffix() {
+        int r = random.nextInt(3);
+        return r == 0 ? "" : r == 1 ? (" " + (char) ('A' + random.nextInt(3))) : (" Annex " + random.nextInt(100));
+    }
+
+    private void addGuards(int count) {
+        for (int i = 0; i < count; i++) {
+            List<Station> assigned = new ArrayList<>();
+            assigned.add(stations.get(i % stations.size()));
+            UserAccount guard = new UserAccount("guard" + i, "{noop}x", "guard" + i + "@example.com", "GUARD", assigned);
+            guard.setId((long) i + 1);
+            guards.add(guard);
+        }
+    }
+
+    private void addVisitors(int count) {
+        for (int i = 0; i < count; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Visitor v = new Visitor(name, random.nextInt(5) == 0 ? "Contractor" : "Guest",
+                    ID_TYPES[random.nextInt(ID_TYPES.length)],
+                    String.format("%04d-%04d-%04d", random.nextInt(10000), random.nextInt(10000), i),
+                    new Date(now - (18L + random.nextInt(50)) * 365L * 24L * HOUR_MS),
+                    new Timestamp(now - random.nextInt(24 * 180) * HOUR_MS));
+            v.setVisitorID((long) i + 1);
+            v.setGender(random.nextBoolean() ? "Male" : "Female");
+            v.setArchived(false);
+            visitors.add(v);
+
+            VisitorPass pass = new VisitorPass(String.format("%03d", i), "PASS-" + i, "IN_USE");
+            pass.setPassID((long) i + 1);
+            pass.setDisplayCode(random.nextInt(4) == 0 ? null : "V-" + String.format("%03d", i));
+            pass.setOriginLocation(stations.get(random.nextInt(stations.size())).getName());
+            passes.add(pass);
+        }
+    }
+
+    private void addLogs(int count, int entriesPerLog, int maxAgeHours) {
+        long entryId = 1;
+        for (int i = 0; i < count; i++) {
+            int v = random.nextInt(visitors.size());
+            long start = now - (long) (random.nextDouble() * maxAgeHours * HOUR_MS);
+
+            VisitorLog log = new VisitorLog(visitors.get(v), passes.get(v), new Timestamp(start), null);
+            log.setVisitorLogID((long) i + 1);
+            log.setStatus("ACTIVE");
+            log.setPurposeOfVisit(PURPOSES[random.nextInt(PURPOSES.length)]);
+            log.setArchived(false);
+
+            List<Station> allowed = new ArrayList<>();
+            int allowedCount = 1 + random.nextInt(Math.min(4, stations.size()));
+            for (int a = 0; a < allowedCount; a++) {
+                allowed.add(stations.get(random.nextInt(stations.size())));
+            }
+            log.setAllowedStations(allowed);
+
+            // Entries are stored out of order, as a lazy collection comes back unsorted
+            List<VisitorLogEntry> logEntries = new ArrayList<>();
+            for (int e = 0; e < entriesPerLog; e++) {
+                long ts = start + (long) (random.nextDouble() * Math.max(1, now - start));
+                VisitorLogEntry entry = new VisitorLogEntry(log,
+                        stations.get(random.nextInt(stations.size())),
+                        guards.get(random.nextInt(guards.size())),
+                        new Timestamp(ts));
+                entry.setVisitorLogEntryID(entryId++);
+                entry.setRecordedPassDisplayCode(passes.get(v).getDisplayCode());
+                entry.setRecordedPassOrigin(passes.get(v).getOriginLocation());
+                logEntries.add(entry);
+                entries.add(entry);
+            }
+            log.setVisitorLogEntries(logEntries);
+            logs.add(log);
+        }
+    }
+}
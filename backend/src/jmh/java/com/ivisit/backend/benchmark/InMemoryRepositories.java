@@ -0,0 +1,65 @@
+package com.ivisit.backend.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Stand-in Spring Data repositories for benchmarks, so service code runs
+ * without a database. save/saveAll return their argument, findById looks
+ * up the given map, and any other method must be given a handler;
+ * unhandled calls fail loudly rather than skewing a measurement.
+ */
+public class InMemoryRepositories {
+
+    public static <R> R of(Class<R> type, Map<Long, ?> byId, Map<String, Function<Object[], Object>> handlers) {
+        Map<Long, ?> rows = byId != null ? byId : Collections.<Long, Object>emptyMap();
+        Map<String, Function<Object[], Object>> named = handlers != null
+                ? handlers
+                : new HashMap<String, Function<Object[], Object>>();
+
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            String name = method.getName();
+            Function<Object[], Object> handler = named.get(name);
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            switch (name) {
+                case "save":
+                case "saveAndFlush":
+                case "saveAll":
+                    return args[0];
+                case "findById":
+                    return Optional.ofNullable(rows.get(args[0]));
+                case "existsById":
+                    return rows.containsKey(args[0]);
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + name + " has no handler");
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    /**
+     * Sets an @Autowired field on a service created with new.
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + target.getClass().getSimpleName() + "." + fieldName, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.benchmark.Fixtures;
+import com.lowagie.text.DocumentException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExportService CSV and PDF builders for the Archive Center and Visitors
+ * page exports. rows is the visitor and log count; each log has 4 entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"200", "2000"})
+    public int rows;
+
+    private final ExportService exportService = new ExportService();
+    private Fixtures fixtures;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.build(7L, 12, rows, rows, 4, 24 * 90);
+        to = LocalDate.now();
+        from = to.minusDays(90);
+    }
+
+    @Benchmark
+    public byte[] visitorsCsv() {
+        return exportService.buildVisitorsCsv(fixtures.visitors);
+    }
+
+    @Benchmark
+    public byte[] logsCsv() {
+        return exportService.buildLogsCsv(fixtures.logs);
+    }
+
+    @Benchmark
+    public byte[] entriesCsv() {
+        return exportService.buildEntriesCsv(fixtures.entries);
+    }
+
+    @Benchmark
+    public byte[] archiveReportPdf() throws DocumentException {
+        return exportService.buildArchiveReportPdf(fixtures.visitors, fixtures.logs, fixtures.entries, from, to);
+    }
+
+    @Benchmark
+    public byte[] visitorsSelectionPdf() throws DocumentException {
+        return exportService.buildVisitorsSelectionPdf(fixtures.visitors, fixtures.logs, fixtures.entries);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.benchmark.Fixtures;
+import com.ivisit.backend.benchmark.InMemoryRepositories;
+import com.ivisit.backend.model.*;
+import com.ivisit.backend.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One OverstayScheduler tick: OverstayEvaluationService.evaluateOverstays
+ * over the active logs. Logs start up to 16 hours ago, so a run mixes
+ * in-time, soft (8h) and hard (12h) overstays; the hard ones go through
+ * incident creation. Log and pass state is reset before every tick so
+ * each one does the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OverstayEvaluationBenchmark {
+
+    @Param({"100", "1000"})
+    public int activeLogs;
+
+    @Param({"5"})
+    public int entriesPerLog;
+
+    private OverstayEvaluationService service;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = Fixtures.build(3L, 12, activeLogs, activeLogs, entriesPerLog, 16);
+        List<VisitorLog> logs = fixtures.logs;
+
+        Map<Long, VisitorPass> passesById = new HashMap<>();
+        for (VisitorPass p : fixtures.passes) passesById.put(p.getPassID(), p);
+        Map<Long, Visitor> visitorsById = new HashMap<>();
+        for (Visitor v : fixtures.visitors) visitorsById.put(v.getVisitorID(), v);
+        Map<Long, VisitorLog> logsById = new HashMap<>();
+        for (VisitorLog l : logs) logsById.put(l.getVisitorLogID(), l);
+
+        Map<String, Function<Object[], Object>> logHandlers = new HashMap<>();
+        logHandlers.put("findActiveLogsWithEntries", args -> {
+            for (VisitorLog l : logs) {
+                l.setStatus("ACTIVE");
+                l.setActiveEnd(null);
+                if (l.getVisitorPass() != null) {
+                    l.getVisitorPass().setStatus("IN_USE");
+                }
+            }
+            return logs;
+        });
+        VisitorLogRepository logRepository = InMemoryRepositories.of(VisitorLogRepository.class, logsById, logHandlers);
+        VisitorPassRepository passRepository = InMemoryRepositories.of(VisitorPassRepository.class, passesById, null);
+
+        VisitorPassIncidentService incidentService = new VisitorPassIncidentService();
+        InMemoryRepositories.inject(incidentService, "incidentRepository",
+                InMemoryRepositories.of(VisitorPassIncidentRepository.class, null, null));
+        InMemoryRepositories.inject(incidentService, "visitorPassRepository", passRepository);
+        InMemoryRepositories.inject(incidentService, "visitorRepository",
+                InMemoryRepositories.of(VisitorRepository.class, visitorsById, null));
+        InMemoryRepositories.inject(incidentService, "visitorLogRepository", logRepository);
+
+        service = new OverstayEvaluationService();
+        InMemoryRepositories.inject(service, "visitorLogRepository", logRepository);
+        InMemoryRepositories.inject(service, "visitorPassRepository", passRepository);
+        InMemoryRepositories.inject(service, "incidentService", incidentService);
+        InMemoryRepositories.inject(service, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void evaluateOverstays() {
+        service.evaluateOverstays();
+    }
+}
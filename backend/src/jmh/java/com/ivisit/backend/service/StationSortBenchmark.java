@@ -0,0 +1,63 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.benchmark.Fixtures;
+import com.ivisit.backend.benchmark.InMemoryRepositories;
+import com.ivisit.backend.model.Station;
+import com.ivisit.backend.repository.StationRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * StationService gate-aware sorting. The repository hands back a fresh
+ * unsorted copy on every call, as findAll() does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StationSortBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int stations;
+
+    private StationService stationService;
+
+    @Setup
+    public void setUp() {
+        List<Station> fixture = Fixtures.stations(11L, stations);
+
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findAll", args -> new ArrayList<>(fixture));
+        handlers.put("findAllByStationTypeIgnoreCase", args -> {
+            List<Station> matching = new ArrayList<>();
+            for (Station s : fixture) {
+                if (s.getType() != null && s.getType().equalsIgnoreCase((String) args[0])) {
+                    matching.add(s);
+                }
+            }
+            return matching;
+        });
+
+        stationService = new StationService();
+        InMemoryRepositories.inject(stationService, "stationRepository",
+                InMemoryRepositories.of(StationRepository.class, null, handlers));
+    }
+
+    @Benchmark
+    public List<Station> allStationsSorted() {
+        return stationService.getAllStationsSorted();
+    }
+
+    @Benchmark
+    public List<Station> gateStationsSorted() {
+        return stationService.getGateStationsSorted();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.benchmark.Fixtures;
+import com.ivisit.backend.dto.VisitorLogDTO;
+import com.ivisit.backend.model.VisitorLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VisitorLogService.mapToDTO over a LogBook-sized page of logs, the work
+ * behind /api/visitorLog/all and /active once the entities are loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VisitorLogMappingBenchmark {
+
+    @Param({"1", "5", "25"})
+    public int entriesPerLog;
+
+    @Param({"1000"})
+    public int logs;
+
+    private VisitorLogService service;
+    private List<VisitorLog> fixtureLogs;
+
+    @Setup
+    public void setUp() {
+        service = new VisitorLogService();
+        fixtureLogs = Fixtures.build(42L, 20, logs, logs, entriesPerLog, 48).logs;
+    }
+
+    @Benchmark
+    public List<VisitorLogDTO> mapAll() {
+        List<VisitorLogDTO> dtos = new ArrayList<>(fixtureLogs.size());
+        for (VisitorLog log : fixtureLogs) {
+            dtos.add(service.mapToDTO(log));
+        }
+        return dtos;
+    }
+}
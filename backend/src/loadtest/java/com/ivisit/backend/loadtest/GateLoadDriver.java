@@ -0,0 +1,399 @@
+package com.ivisit.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the gate workflow against a running backend at a fixed arrival
+ * rate and reports per-endpoint throughput and latency percentiles.
+ *
+ * Each visit is: register visitor -> check in with details (entry at a
+ * gate) -> N RFID taps (helper rfid-scan + record-entry at a building) ->
+ * checkout at the gate. Visits start on a fixed schedule (open loop), so a
+ * slow server shows up as latency and a growing in-flight count rather
+ * than as a quietly lower request rate. Each visit holds one AVAILABLE
+ * pass; seed a pool with app.seed.synthetic.* in the dev profile.
+ *
+ * Settings (system properties):
+ *   load.baseUrl       backend URL                  (http://localhost:8080)
+ *   load.rate          new visits per second        (5)
+ *   load.duration      seconds to start visits for  (60)
+ *   load.taps          RFID taps per visit          (2)
+ *   load.concurrency   max visits in flight         (64)
+ *   load.output        JSON report path             (target/loadtest-result.json)
+ */
+public class GateLoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final double rate;
+    private final int durationSeconds;
+    private final int taps;
+    private final int concurrency;
+    private final String output;
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final AtomicInteger visitsStarted = new AtomicInteger();
+    private final AtomicInteger visitsCompleted = new AtomicInteger();
+    private final AtomicInteger visitsFailed = new AtomicInteger();
+    private final AtomicInteger visitsSkipped = new AtomicInteger();
+    private final AtomicInteger visitorSeq = new AtomicInteger();
+
+    private final List<Long> gates = new ArrayList<>();
+    private final List<Long> buildings = new ArrayList<>();
+    private final Map<Long, List<Long>> guardsByStation = new HashMap<>();
+    private final List<Long> allGuards = new ArrayList<>();
+    private final BlockingQueue<Long> passes = new LinkedBlockingQueue<>();
+
+    public GateLoadDriver(String baseUrl, double rate, int durationSeconds, int taps, int concurrency, String output) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.rate = rate;
+        this.durationSeconds = durationSeconds;
+        this.taps = taps;
+        this.concurrency = concurrency;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws Exception {
+        GateLoadDriver driver = new GateLoadDriver(
+                System.getProperty("load.baseUrl", "http://localhost:8080"),
+                Double.parseDouble(System.getProperty("load.rate", "5")),
+                Integer.parseInt(System.getProperty("load.duration", "60")),
+                Integer.parseInt(System.getProperty("load.taps", "2")),
+                Integer.parseInt(System.getProperty("load.concurrency", "64")),
+                System.getProperty("load.output", "target/loadtest-result.json")
+        );
+        driver.discover();
+        driver.run();
+    }
+
+    /**
+     * Stations, guards and available passes from the API.
+     */
+    private void discover() throws IOException {
+        for (JsonNode s : get("/api/stations")) {
+            long id = s.path("stationID").asLong();
+            if ("GATE".equalsIgnoreCase(s.path("stationType").asText())) {
+                gates.add(id);
+            } else {
+                buildings.add(id);
+            }
+        }
+
+        for (JsonNode u : get("/api/users?size=500").path("content")) {
+            if (!"GUARD".equalsIgnoreCase(u.path("accountType").asText())) {
+                continue;
+            }
+            long id = u.path("accountID").asLong();
+            allGuards.add(id);
+            for (JsonNode station : u.path("assignedStationIds")) {
+                guardsByStation.computeIfAbsent(station.asLong(), k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        for (JsonNode p : get("/api/visitorPass/available")) {
+            passes.add(p.path("passID").asLong());
+        }
+
+        if (gates.isEmpty() || allGuards.isEmpty() || passes.isEmpty()) {
+            throw new IllegalStateException("Need at least one gate, one guard and one available pass; found "
+                    + gates.size() + " gates, " + allGuards.size() + " guards, " + passes.size() + " passes");
+        }
+        if (buildings.isEmpty()) {
+            buildings.addAll(gates);
+        }
+        System.out.println("[LoadDriver] " + gates.size() + " gates, " + buildings.size() + " buildings, "
+                + allGuards.size() + " guards, " + passes.size() + " available passes");
+    }
+
+    private void run() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long periodNanos = (long) (1_000_000_000L / rate);
+        int totalVisits = (int) Math.round(rate * durationSeconds);
+        CountDownLatch scheduled = new CountDownLatch(totalVisits);
+
+        System.out.println("[LoadDriver] " + totalVisits + " visits at " + rate + "/s against " + baseUrl);
+        long started = System.nanoTime();
+
+        ticker.scheduleAtFixedRate(() -> {
+            if (scheduled.getCount() == 0) {
+                return;
+            }
+            try {
+                if (!inFlight.tryAcquire()) {
+                    // Client-side limit reached: the server is not keeping up
+                    visitsSkipped.incrementAndGet();
+                    return;
+                }
+                workers.execute(() -> {
+                    try {
+                        visit();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } finally {
+                // Only after the visit is handed over, so shutdown cannot reject it
+                scheduled.countDown();
+            }
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        scheduled.await();
+        ticker.shutdown();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        report(elapsedSeconds);
+    }
+
+    private void visit() {
+        visitsStarted.incrementAndGet();
+        Long passId = passes.poll();
+        if (passId == null) {
+            visitsSkipped.incrementAndGet();
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long logId = null;
+        long gate = gates.get(random.nextInt(gates.size()));
+        try {
+            int n = visitorSeq.incrementAndGet();
+            Map<String, String> form = new LinkedHashMap<>();
+            form.put("visitorName", "Load Visitor " + n);
+            form.put("dob", LocalDate.of(1970 + random.nextInt(35), 1 + random.nextInt(12), 1 + random.nextInt(28)).toString());
+            form.put("idNumber", "LOAD-" + System.currentTimeMillis() + "-" + n);
+            form.put("idType", "NATIONAL_ID");
+            form.put("visitorType", "Guest");
+            long visitorId = postForm("register", "/api/visitors/register", form).path("visitorId").asLong();
+
+            ObjectNode checkIn = MAPPER.createObjectNode();
+            checkIn.put("visitorId", visitorId);
+            checkIn.put("passId", passId);
+            checkIn.put("purposeOfVisit", "Load test");
+            checkIn.putArray("allowedStationIds").add(gate).add(buildings.get(random.nextInt(buildings.size())));
+            checkIn.put("initialStationId", gate);
+            checkIn.put("guardAccountId", guardFor(gate, random));
+            logId = postJson("checkin", "/api/visitorLog/checkin-with-details", checkIn).path("logId").asLong();
+
+            for (int t = 0; t < taps; t++) {
+                long station = buildings.get(random.nextInt(buildings.size()));
+
+                ObjectNode scan = MAPPER.createObjectNode();
+                scan.put("uid", "SYN-RFID-" + passId);
+                scan.put("stationId", String.valueOf(station));
+                scan.put("scannedAt", java.time.Instant.now().toString());
+                postJson("rfid-scan", "/api/helper/rfid-scan", scan);
+
+                Map<String, String> entry = new LinkedHashMap<>();
+                entry.put("visitorLogId", String.valueOf(logId));
+                entry.put("stationId", String.valueOf(station));
+                entry.put("accountId", String.valueOf(guardFor(station, random)));
+                postForm("record-entry", "/api/visitorLog/record-entry", entry);
+            }
+
+            Map<String, String> checkout = new LinkedHashMap<>();
+            checkout.put("logId", String.valueOf(logId));
+            checkout.put("stationId", String.valueOf(gate));
+            checkout.put("guardAccountId", String.valueOf(guardFor(gate, random)));
+            postForm("checkout", "/api/visitorLog/checkout", checkout);
+            logId = null;
+
+            visitsCompleted.incrementAndGet();
+        } catch (IOException e) {
+            visitsFailed.incrementAndGet();
+        } finally {
+            if (logId == null) {
+                passes.add(passId);
+            }
+            // A pass left on a failed, still-open log stays out of the pool
+        }
+    }
+
+    private long guardFor(long stationId, ThreadLocalRandom random) {
+        List<Long> assigned = guardsByStation.get(stationId);
+        List<Long> pool = (assigned != null && !assigned.isEmpty()) ? assigned : allGuards;
+        return pool.get(random.nextInt(pool.size()));
+    }
+
+    // ---------- HTTP ----------
+
+    private JsonNode get(String path) throws IOException {
+        HttpURLConnection conn = open(path);
+        return read(conn, "GET " + path);
+    }
+
+    private JsonNode postForm(String name, String path, Map<String, String> form) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String> e : form.entrySet()) {
+            if (body.length() > 0) body.append('&');
+            body.append(URLEncoder.encode(e.getKey(), "UTF-8")).append('=')
+                    .append(URLEncoder.encode(e.getValue(), "UTF-8"));
+        }
+        return timed(name, path, "application/x-www-form-urlencoded", body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private JsonNode postJson(String name, String path, JsonNode body) throws IOException {
+        return timed(name, path, "application/json", MAPPER.writeValueAsBytes(body));
+    }
+
+    private JsonNode timed(String name, String path, String contentType, byte[] body) throws IOException {
+        Recorder recorder = recorders.computeIfAbsent(name, k -> new Recorder());
+        long start = System.nanoTime();
+        try {
+            HttpURLConnection conn = open(path);
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", contentType);
+            conn.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body);
+            }
+            JsonNode result = read(conn, "POST " + path);
+            recorder.record(System.nanoTime() - start, true);
+            return result;
+        } catch (IOException e) {
+            recorder.record(System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        conn.setConnectTimeout(5000);
+        conn.setReadTimeout(60000);
+        conn.setRequestProperty("Accept", "application/json");
+        return conn;
+    }
+
+    private static JsonNode read(HttpURLConnection conn, String what) throws IOException {
+        int status = conn.getResponseCode();
+        InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+        byte[] bytes = readAll(in);
+        if (status >= 400) {
+            throw new IOException(what + " -> " + status + " " + new String(bytes, StandardCharsets.UTF_8));
+        }
+        return bytes.length == 0 ? MAPPER.createObjectNode() : MAPPER.readTree(bytes);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = input.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    // ---------- Reporting ----------
+
+    private void report(double elapsedSeconds) throws IOException {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("baseUrl", baseUrl);
+        root.put("targetVisitsPerSecond", rate);
+        root.put("elapsedSeconds", elapsedSeconds);
+        root.put("visitsStarted", visitsStarted.get());
+        root.put("visitsCompleted", visitsCompleted.get());
+        root.put("visitsFailed", visitsFailed.get());
+        root.put("visitsSkipped", visitsSkipped.get());
+        ObjectNode endpoints = root.putObject("endpoints");
+
+        System.out.println();
+        System.out.println(String.format("%-14s %8s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (String name : new TreeSet<>(recorders.keySet())) {
+            Recorder r = recorders.get(name);
+            long[] sorted = r.sorted();
+            double p50 = percentile(sorted, 50);
+            double p95 = percentile(sorted, 95);
+            double p99 = percentile(sorted, 99);
+            double max = sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0;
+            double throughput = sorted.length / elapsedSeconds;
+
+            System.out.println(String.format("%-14s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    name, sorted.length, r.errors.get(), throughput, p50, p95, p99, max));
+
+            ObjectNode e = endpoints.putObject(name);
+            e.put("count", sorted.length);
+            e.put("errors", r.errors.get());
+            e.put("throughputPerSecond", throughput);
+            e.put("p50Ms", p50);
+            e.put("p95Ms", p95);
+            e.put("p99Ms", p99);
+            e.put("maxMs", max);
+        }
+        System.out.println();
+        System.out.println("[LoadDriver] visits: " + visitsCompleted.get() + " completed, " + visitsFailed.get()
+                + " failed, " + visitsSkipped.get() + " skipped (no pass or client limit) in "
+                + String.format("%.1f", elapsedSeconds) + "s");
+
+        File out = new File(output);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(out, root);
+        System.out.println("[LoadDriver] Report written to " + out.getPath());
+    }
+
+    /**
+     * Nearest-rank percentile, in milliseconds.
+     */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1e6;
+    }
+
+    /**
+     * Every latency sample of one endpoint, in nanoseconds.
+     */
+    private static class Recorder {
+        private long[] samples = new long[1024];
+        private int size;
+        final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
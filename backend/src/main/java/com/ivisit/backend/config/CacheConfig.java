@@ -0,0 +1,77 @@
+package com.ivisit.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process Hibernate second-level cache for the reference entities read on
+ * every check-in and entry: Station, VisitorPass and UserAccount, plus the
+ * guard/station assignment collections.
+ *
+ * Each backend instance has its own Caffeine regions. Writes made through
+ * Hibernate on this instance keep them current; the expiry bounds how long
+ * an edit made elsewhere (another instance, manual SQL) can stay invisible.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String STATION_REGION = "ivisit.station";
+    public static final String VISITOR_PASS_REGION = "ivisit.visitorPass";
+    public static final String USER_ACCOUNT_REGION = "ivisit.userAccount";
+    public static final String STATION_USERS_REGION = "ivisit.station.assignedUsers";
+    public static final String USER_STATIONS_REGION = "ivisit.userAccount.assignedStations";
+
+    private static final String[] REGIONS = {
+            STATION_REGION,
+            VISITOR_PASS_REGION,
+            USER_ACCOUNT_REGION,
+            STATION_USERS_REGION,
+            USER_STATIONS_REGION
+    };
+
+    @Value("${app.cache.reference.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${app.cache.reference.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    /**
+     * Own cache manager per application context, so test contexts and
+     * devtools restarts never share or close each other's regions.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager referenceCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("ivisit-reference-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setMaximumSize(OptionalLong.of(maxEntries));
+            config.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            // Hibernate stores disassembled state, so copying on every get/put buys nothing
+            config.setStoreByValue(false);
+            config.setStatisticsEnabled(true);
+            cacheManager.createCache(region, config);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager referenceCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, referenceCacheManager);
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.sql.Timestamp;
@@ -19,6 +20,7 @@ import java.util.*;
 public class DatabaseSeeder {
 
     @Bean
+    @Order(0)
     public CommandLineRunner seedDatabase(
             StationRepository stationRepository,
             UserAccountRepository userAccountRepository,
@@ -0,0 +1,86 @@
+package com.ivisit.backend.config;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Moves every pooled id sequence past the ids already in its table.
+ *
+ * VisitorLog, VisitorLogEntry and VisitorPassIncident used IDENTITY ids
+ * before they switched to pooled-lo sequences. The schema update creates a
+ * new sequence starting at 1, so on an existing database the first inserts
+ * would collide with old rows. This runs once the schema is up to date and
+ * before the schedulers start. It is idempotent and never moves a sequence
+ * backwards.
+ *
+ * MySQL has no sequences, so Hibernate keeps them in one-row tables
+ * (next_val); databases with real sequences are restarted instead.
+ */
+@Component
+public class IdSequenceMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    private static final String TABLE_VALUE_COLUMN = "next_val";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            IdentifierGenerator generator = persister.getIdentifierGenerator();
+            if (!(generator instanceof SequenceStyleGenerator) || !(persister instanceof AbstractEntityPersister)) {
+                continue;
+            }
+            AbstractEntityPersister entity = (AbstractEntityPersister) persister;
+            DatabaseStructure structure = ((SequenceStyleGenerator) generator).getDatabaseStructure();
+
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(" + entity.getIdentifierColumnNames()[0] + ") FROM " + entity.getTableName(),
+                    Long.class);
+            if (maxId == null) {
+                continue;
+            }
+            long next = maxId + 1;
+            String sequence = structure.getPhysicalName().render();
+
+            if (structure.isPhysicalSequence()) {
+                Long current = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+                if (current != null && current < next) {
+                    jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+                    log.info("Restarted sequence {} at {} (max id in {} is {})",
+                            sequence, next, entity.getTableName(), maxId);
+                }
+            } else {
+                int updated = jdbcTemplate.update(
+                        "UPDATE " + sequence + " SET " + TABLE_VALUE_COLUMN + " = ? WHERE " + TABLE_VALUE_COLUMN + " < ?",
+                        next, next);
+                if (updated > 0) {
+                    log.info("Moved id table {} to {} (max id in {} is {})",
+                            sequence, next, entity.getTableName(), maxId);
+                }
+            }
+        }
+    }
+}
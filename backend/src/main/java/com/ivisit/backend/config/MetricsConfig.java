@@ -0,0 +1,16 @@
+package com.ivisit.backend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        // Enables @Timed on service and scheduler methods (ivisit.* timers)
+        return new TimedAspect(registry);
+    }
+}
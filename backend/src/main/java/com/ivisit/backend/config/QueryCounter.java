@@ -0,0 +1,61 @@
+package com.ivisit.backend.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Per-thread SQL statement count and the repository method currently
+ * running, fed by the SQL inspection proxy in the dev and test profiles.
+ *
+ * The count only ever grows; callers take the difference between two
+ * readings, so nested measurements (a request inside a test) do not
+ * interfere with each other.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<Deque<String>> REPOSITORY_CALLS = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<String> LAST_REPOSITORY_CALL = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Statements executed on this thread so far.
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Where the statement being executed comes from: the innermost
+     * repository method, or for lazy loads the repository call that
+     * returned the entities being walked.
+     */
+    public static String origin() {
+        String call = REPOSITORY_CALLS.get().peek();
+        if (call != null) {
+            return call;
+        }
+        String last = LAST_REPOSITORY_CALL.get();
+        return last != null ? "lazy load after " + last : "outside repository";
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    static void enterRepository(String method) {
+        REPOSITORY_CALLS.get().push(method);
+    }
+
+    static void exitRepository() {
+        String method = REPOSITORY_CALLS.get().poll();
+        LAST_REPOSITORY_CALL.set(method);
+    }
+
+    static void clearOrigin() {
+        REPOSITORY_CALLS.get().clear();
+        LAST_REPOSITORY_CALL.remove();
+    }
+}
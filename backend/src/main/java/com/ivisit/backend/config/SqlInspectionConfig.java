@@ -0,0 +1,201 @@
+package com.ivisit.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL inspection for the dev and test profiles.
+ *
+ * Wraps the DataSource so every statement is counted per thread
+ * ({@link QueryCounter}) and statements slower than app.sql.slow-query-ms
+ * are logged with the repository method that issued them. Each HTTP request
+ * logs its statement count, with a warning past
+ * app.sql.request-warn-threshold, which is usually an N+1 over a lazy
+ * association. Never active in prod.
+ */
+@Configuration
+@Profile({"dev", "test"})
+@ConditionalOnProperty(name = "app.sql.inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInspectionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlInspectionConfig.class);
+
+    @Bean
+    public static BeanPostProcessor sqlInspectionDataSourcePostProcessor(Environment environment) {
+        long slowQueryMs = environment.getProperty("app.sql.slow-query-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new StatementListener(slowQueryMs))
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public RepositoryCallTracker repositoryCallTracker() {
+        return new RepositoryCallTracker();
+    }
+
+    @Bean
+    public WebMvcConfigurer sqlInspectionInterceptorConfigurer(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql.request-warn-threshold:30}") int warnThreshold) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestStatementInterceptor(meterRegistry, warnThreshold))
+                        .addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    /**
+     * Counts every executed statement and logs the slow ones.
+     */
+    private static class StatementListener implements QueryExecutionListener {
+
+        private final long slowQueryMs;
+
+        StatementListener(long slowQueryMs) {
+            this.slowQueryMs = slowQueryMs;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            QueryCounter.increment();
+            if (execInfo.getElapsedTime() >= slowQueryMs && !queryInfoList.isEmpty()) {
+                log.warn("Slow SQL ({} ms) from {}: {}",
+                        execInfo.getElapsedTime(), QueryCounter.origin(), abbreviate(queryInfoList.get(0).getQuery()));
+            }
+        }
+
+        private static String abbreviate(String sql) {
+            return sql.length() > 500 ? sql.substring(0, 500) + "..." : sql;
+        }
+    }
+
+    /**
+     * Records which repository method is running so slow statements and
+     * lazy loads can be attributed to it.
+     */
+    @Aspect
+    public static class RepositoryCallTracker {
+
+        private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+        @Around("this(org.springframework.data.repository.Repository)")
+        public Object track(ProceedingJoinPoint pjp) throws Throwable {
+            QueryCounter.enterRepository(repositoryName(pjp.getThis()) + "." + pjp.getSignature().getName());
+            try {
+                return pjp.proceed();
+            } finally {
+                QueryCounter.exitRepository();
+            }
+        }
+
+        private String repositoryName(Object proxy) {
+            return repositoryNames.computeIfAbsent(proxy.getClass(), type -> {
+                for (Class<?> iface : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                    if (iface.getName().startsWith("com.ivisit.")) {
+                        return iface.getSimpleName();
+                    }
+                }
+                return type.getSimpleName();
+            });
+        }
+    }
+
+    /**
+     * Statement count per API request, logged and recorded as
+     * ivisit.sql.statements{uri}.
+     */
+    private static class RequestStatementInterceptor implements HandlerInterceptor {
+
+        private static final String START_COUNT = RequestStatementInterceptor.class.getName() + ".count";
+        private static final String START_NANOS = RequestStatementInterceptor.class.getName() + ".nanos";
+
+        private final MeterRegistry meterRegistry;
+        private final int warnThreshold;
+
+        RequestStatementInterceptor(MeterRegistry meterRegistry, int warnThreshold) {
+            this.meterRegistry = meterRegistry;
+            this.warnThreshold = warnThreshold;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            QueryCounter.clearOrigin();
+            request.setAttribute(START_COUNT, QueryCounter.current());
+            request.setAttribute(START_NANOS, System.nanoTime());
+            return true;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                Exception ex) {
+            Object startCount = request.getAttribute(START_COUNT);
+            Object startNanos = request.getAttribute(START_NANOS);
+            if (!(startCount instanceof Long) || !(startNanos instanceof Long)) {
+                return;
+            }
+            long statements = QueryCounter.current() - (Long) startCount;
+            long elapsedMs = (System.nanoTime() - (Long) startNanos) / 1_000_000;
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+            DistributionSummary.builder("ivisit.sql.statements")
+                    .description("SQL statements per API request (dev/test only)")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+
+            if (statements >= warnThreshold) {
+                log.warn("{} {} executed {} SQL statements in {} ms, check for N+1 loading",
+                        request.getMethod(), uri, statements, elapsedMs);
+            } else {
+                log.debug("{} {} executed {} SQL statements in {} ms",
+                        request.getMethod(), uri, statements, elapsedMs);
+            }
+            QueryCounter.clearOrigin();
+        }
+    }
+}
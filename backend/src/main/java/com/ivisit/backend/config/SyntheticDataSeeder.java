@@ -0,0 +1,296 @@
+package com.ivisit.backend.config;
+
+import com.ivisit.backend.model.*;
+import com.ivisit.backend.repository.StationRepository;
+import com.ivisit.backend.repository.UserAccountRepository;
+import com.ivisit.backend.repository.VisitorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Bulk synthetic workload for load testing (dev profile, off by default).
+ *
+ * With app.seed.synthetic.enabled=true this adds N visitors, a pool of
+ * AVAILABLE passes for the load driver, and months of ended visits with
+ * their checkpoint entries, on top of the stations and guards created by
+ * DatabaseSeeder. Rows are written in chunks, one transaction per chunk,
+ * so the persistence context never grows past batch-size entities.
+ * Runs once: skipped when the first synthetic visitor already exists.
+ */
+@Configuration
+@Profile("dev")
+public class SyntheticDataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    private static final String ID_PREFIX = "SYN-";
+
+    private static final String[] FIRST_NAMES = {
+            "Juan", "Maria", "Jose", "Ana", "Mark", "Angelica", "John Paul", "Kristine", "Miguel",
+            "Patricia", "Rafael", "Jasmine", "Carlo", "Bea", "Paolo", "Camille", "Andres", "Liza"
+    };
+    private static final String[] LAST_NAMES = {
+            "Dela Cruz", "Santos", "Reyes", "Garcia", "Mendoza", "Bautista", "Villanueva", "Ramos",
+            "Aquino", "Castillo", "Fernandez", "Del Rosario", "Gonzales", "Lim", "Tan", "Navarro"
+    };
+    private static final String[] ID_TYPES = {
+            "NATIONAL_ID", "DRIVER_LICENSE", "PHILHEALTH", "UMID", "PASSPORT", "COMPANY_ID"
+    };
+    private static final String[] VISITOR_TYPES = {"Guest", "Guest", "Guest", "Contractor", "Supplier"};
+    private static final String[] PURPOSES = {
+            "Enrollment", "Meeting", "Delivery", "Document request", "Campus tour", "Interview", "Event"
+    };
+
+    @Value("${app.seed.synthetic.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.seed.synthetic.visitors:5000}")
+    private int visitorCount;
+
+    @Value("${app.seed.synthetic.passes:200}")
+    private int passCount;
+
+    @Value("${app.seed.synthetic.months:3}")
+    private int months;
+
+    @Value("${app.seed.synthetic.visits-per-day:200}")
+    private int visitsPerDay;
+
+    @Value("${app.seed.synthetic.entries-per-visit:3}")
+    private int entriesPerVisit;
+
+    @Value("${app.seed.synthetic.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.seed.synthetic.random-seed:42}")
+    private long randomSeed;
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public CommandLineRunner seedSyntheticData(
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            StationRepository stationRepository,
+            UserAccountRepository userAccountRepository,
+            VisitorRepository visitorRepository
+    ) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            if (visitorRepository.existsByIdNumber(idNumber(0))) {
+                log.info("Synthetic data already present, skipping");
+                return;
+            }
+
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            Random random = new Random(randomSeed);
+            long started = System.currentTimeMillis();
+
+            // Station ids by type, and guard ids by assigned station
+            List<Long> gates = new ArrayList<>();
+            List<Long> buildings = new ArrayList<>();
+            Map<Long, String> stationNames = new HashMap<>();
+            Map<Long, List<Long>> guardsByStation = new HashMap<>();
+            List<Long> allGuards = new ArrayList<>();
+            tx.executeWithoutResult(status -> {
+                for (Station s : stationRepository.findAll()) {
+                    stationNames.put(s.getId(), s.getName());
+                    if ("GATE".equalsIgnoreCase(s.getType())) {
+                        gates.add(s.getId());
+                    } else {
+                        buildings.add(s.getId());
+                    }
+                }
+                for (UserAccount u : userAccountRepository.findAll()) {
+                    if (!"GUARD".equalsIgnoreCase(u.getAccountType())) {
+                        continue;
+                    }
+                    allGuards.add(u.getId());
+                    if (u.getAssignedStations() != null) {
+                        for (Station s : u.getAssignedStations()) {
+                            guardsByStation.computeIfAbsent(s.getId(), k -> new ArrayList<>()).add(u.getId());
+                        }
+                    }
+                }
+            });
+            if (gates.isEmpty() || allGuards.isEmpty()) {
+                log.warn("Synthetic data needs at least one GATE station and one GUARD account, skipping");
+                return;
+            }
+            if (buildings.isEmpty()) {
+                buildings.addAll(gates);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            long firstDay = now.minusMonths(months).toLocalDate().toEpochDay();
+            long today = now.toLocalDate().toEpochDay();
+
+            // Visitors, registered over the seeded period
+            List<Long> visitorIds = new ArrayList<>(visitorCount);
+            for (int from = 0; from < visitorCount; from += batchSize) {
+                int to = Math.min(visitorCount, from + batchSize);
+                int start = from;
+                tx.executeWithoutResult(status -> {
+                    for (int i = start; i < to; i++) {
+                        Visitor v = new Visitor(
+                                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                                VISITOR_TYPES[random.nextInt(VISITOR_TYPES.length)],
+                                ID_TYPES[random.nextInt(ID_TYPES.length)],
+                                idNumber(i),
+                                toDate(LocalDate.ofEpochDay(today - 365L * (18 + random.nextInt(50))
+                                        - random.nextInt(365))),
+                                at(firstDay + random.nextInt((int) (today - firstDay + 1)), 7 * 60 + random.nextInt(11 * 60))
+                        );
+                        v.setGender(random.nextBoolean() ? "Male" : "Female");
+                        v.setArchived(false);
+                        entityManager.persist(v);
+                        visitorIds.add(v.getVisitorID());
+                    }
+                });
+            }
+
+            // Passes: left AVAILABLE so the load driver can check visitors in
+            List<Long> passIds = new ArrayList<>(passCount);
+            Map<Long, String> passLabels = new HashMap<>();
+            for (int from = 0; from < passCount; from += batchSize) {
+                int to = Math.min(passCount, from + batchSize);
+                int start = from;
+                tx.executeWithoutResult(status -> {
+                    for (int i = start; i < to; i++) {
+                        VisitorPass pass = new VisitorPass(
+                                String.format("SYN%05d", i), String.format("SYN-RFID-%05d", i), "AVAILABLE");
+                        pass.setDisplayCode(String.format("S%04d", i));
+                        Long origin = gates.get(i % gates.size());
+                        pass.setOriginLocation(stationNames.get(origin));
+                        pass.setOriginStationId(origin);
+                        entityManager.persist(pass);
+                        passIds.add(pass.getPassID());
+                        passLabels.put(pass.getPassID(), pass.getDisplayCode());
+                    }
+                });
+            }
+
+            // Ended visits, day by day; a fifth of the visitors make most return visits
+            int hot = Math.max(1, visitorIds.size() / 5);
+            List<int[]> visits = new ArrayList<>();
+            for (long day = firstDay; day < today; day++) {
+                int count = Math.max(0, (int) Math.round(visitsPerDay * (0.7 + random.nextDouble() * 0.6)));
+                for (int i = 0; i < count; i++) {
+                    visits.add(new int[]{(int) (day - firstDay), 7 * 60 + random.nextInt(10 * 60)});
+                }
+            }
+
+            long logCount = 0;
+            long entryCount = 0;
+            for (int from = 0; from < visits.size(); from += batchSize) {
+                int to = Math.min(visits.size(), from + batchSize);
+                List<int[]> chunk = visits.subList(from, to);
+                long[] written = tx.execute(status -> {
+                    long entries = 0;
+                    for (int[] visit : chunk) {
+                        Long visitorId = random.nextInt(10) < 6
+                                ? visitorIds.get(random.nextInt(hot))
+                                : visitorIds.get(random.nextInt(visitorIds.size()));
+                        Long passId = passIds.isEmpty() ? null : passIds.get(random.nextInt(passIds.size()));
+
+                        // 20 minutes to 5 hours, with a few overstays
+                        int minutes = random.nextInt(50) == 0
+                                ? 9 * 60 + random.nextInt(180)
+                                : 20 + random.nextInt(280);
+                        Timestamp start = at(firstDay + visit[0], visit[1]);
+                        Timestamp end = new Timestamp(start.getTime() + minutes * 60_000L);
+
+                        VisitorLog visitorLog = new VisitorLog(
+                                entityManager.getReference(Visitor.class, visitorId),
+                                passId != null ? entityManager.getReference(VisitorPass.class, passId) : null,
+                                start,
+                                end
+                        );
+                        visitorLog.setStatus(minutes >= 8 * 60 ? "ENDED_OVERSTAY" : "ENDED");
+                        visitorLog.setPurposeOfVisit(PURPOSES[random.nextInt(PURPOSES.length)]);
+                        visitorLog.setArchived(false);
+
+                        Long gate = gates.get(random.nextInt(gates.size()));
+                        List<Station> allowed = new ArrayList<>();
+                        allowed.add(entityManager.getReference(Station.class, gate));
+                        for (int b = random.nextInt(3); b > 0; b--) {
+                            allowed.add(entityManager.getReference(Station.class,
+                                    buildings.get(random.nextInt(buildings.size()))));
+                        }
+                        visitorLog.setAllowedStations(allowed);
+
+                        // Entry at the gate, then buildings, then the exit at the gate
+                        List<VisitorLogEntry> logEntries = new ArrayList<>(entriesPerVisit);
+                        for (int e = 0; e < entriesPerVisit; e++) {
+                            boolean atGate = e == 0 || e == entriesPerVisit - 1;
+                            Long stationId = atGate ? gate : buildings.get(random.nextInt(buildings.size()));
+                            long offset = entriesPerVisit == 1
+                                    ? 0
+                                    : (end.getTime() - start.getTime()) * e / (entriesPerVisit - 1);
+
+                            VisitorLogEntry entry = new VisitorLogEntry(
+                                    visitorLog,
+                                    entityManager.getReference(Station.class, stationId),
+                                    entityManager.getReference(UserAccount.class, guardFor(stationId, guardsByStation, allGuards, random)),
+                                    new Timestamp(start.getTime() + offset)
+                            );
+                            if (passId != null) {
+                                entry.setRecordedPassDisplayCode(passLabels.get(passId));
+                            }
+                            entry.setRecordedPassOrigin(stationNames.get(gate));
+                            logEntries.add(entry);
+                        }
+                        visitorLog.setVisitorLogEntries(logEntries);
+
+                        entityManager.persist(visitorLog);
+                        entries += logEntries.size();
+                    }
+                    return new long[]{chunk.size(), entries};
+                });
+                logCount += written[0];
+                entryCount += written[1];
+            }
+
+            log.info("Synthetic data: {} visitors, {} passes, {} logs, {} entries in {} ms",
+                    visitorIds.size(), passIds.size(), logCount, entryCount,
+                    System.currentTimeMillis() - started);
+        };
+    }
+
+    private static String idNumber(int i) {
+        return ID_PREFIX + String.format("%07d", i);
+    }
+
+    private static Long guardFor(Long stationId, Map<Long, List<Long>> guardsByStation,
+                                 List<Long> allGuards, Random random) {
+        List<Long> assigned = guardsByStation.get(stationId);
+        List<Long> pool = (assigned != null && !assigned.isEmpty()) ? assigned : allGuards;
+        return pool.get(random.nextInt(pool.size()));
+    }
+
+    private static Timestamp at(long epochDay, int minuteOfDay) {
+        return Timestamp.valueOf(LocalDate.ofEpochDay(epochDay).atStartOfDay().plusMinutes(minuteOfDay));
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,60 @@
+package com.ivisit.backend.config;
+
+import com.ivisit.backend.model.Visitor;
+import com.ivisit.backend.repository.VisitorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Fills Visitor.normalizedName and normalizedIdNumber for rows saved before
+ * those columns existed, so the visitor directory finds them. New and
+ * edited visitors get their keys from the entity's save callbacks; on an
+ * up-to-date database this is a single empty query.
+ */
+@Component
+public class VisitorSearchKeyBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitorSearchKeyBackfill.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final VisitorRepository visitorRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public VisitorSearchKeyBackfill(VisitorRepository visitorRepository, TransactionTemplate transactionTemplate) {
+        this.visitorRepository = visitorRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            final long from = afterId;
+            // Loaded and updated in one transaction so the changes flush as batched UPDATEs
+            List<Visitor> batch = transactionTemplate.execute(status -> {
+                List<Visitor> visitors = visitorRepository.findMissingSearchKeys(from, PageRequest.of(0, BATCH_SIZE));
+                for (Visitor visitor : visitors) {
+                    visitor.updateSearchKeys();
+                }
+                return visitors;
+            });
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            updated += batch.size();
+            // Walk by id: a name that normalizes to nothing stays NULL and must not be picked up again
+            afterId = batch.get(batch.size() - 1).getVisitorID();
+        }
+        if (updated > 0) {
+            log.info("Filled directory search keys for {} visitors", updated);
+        }
+    }
+}
@@ -3,9 +3,12 @@ package com.ivisit.backend.controller;
 import com.ivisit.backend.dto.ArchiveVisitorsRequest;
 import com.ivisit.backend.dto.VisitorDTO;
 import com.ivisit.backend.dto.VisitorRegistrationResponse;
+import com.ivisit.backend.dto.VisitorSummaryDTO;
 import com.ivisit.backend.model.Visitor;
+import com.ivisit.backend.service.VisitorRegistrationResult;
 import com.ivisit.backend.service.VisitorService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -54,7 +57,7 @@ public class VisitorController {
 
         // NOTE: assumes VisitorService.registerVisitor(...) now has a signature
         // like: (visitorName, dob, idNumber, idType, visitorType, gender, idImagePath, personPhotoPath)
-        Visitor saved = visitorService.registerVisitor(
+        VisitorRegistrationResult result = visitorService.registerVisitor(
                 visitorName,
                 dob,
                 idNumber,
@@ -64,14 +67,20 @@ public class VisitorController {
                 idImagePath,
                 personPhotoPath
         );
+        Visitor saved = result.getVisitor();
 
         VisitorRegistrationResponse dto = new VisitorRegistrationResponse(
-                "Visitor registered successfully",
+                result.isExisting() ? "Returning visitor matched by ID number" : "Visitor registered successfully",
                 saved.getVisitorID(),
-                idImagePath,
-                personPhotoPath,
+                saved.getIdImagePath(),
+                saved.getPhotoPath(),
                 saved.getCreatedAt() != null ? saved.getCreatedAt().toString() : null
         );
+        dto.setExistingVisitor(result.isExisting());
+        dto.setPossibleDuplicates(result.getPossibleDuplicates().stream()
+                .map(v -> new VisitorSummaryDTO(v.getVisitorID(), v.getVisitorName(), v.getIdType(),
+                        v.getIdNumber(), v.getVisitorType(), v.getPhotoPath()))
+                .collect(Collectors.toList()));
 
         return ResponseEntity.ok(dto);
     }
@@ -107,6 +116,27 @@ public class VisitorController {
         return ResponseEntity.ok(dtos);
     }
 
+    // Paged search for the gate; the full list above stays for existing screens
+    @GetMapping("/directory")
+    public ResponseEntity<Map<String, Object>> searchDirectory(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        int pageIndex = (page != null && page.intValue() >= 0) ? page.intValue() : 0;
+        int pageSize = (size != null && size.intValue() > 0) ? size.intValue() : 25;
+
+        Slice<VisitorSummaryDTO> slice = visitorService.searchDirectory(q, pageIndex, pageSize);
+
+        Map<String, Object> body = new HashMap<String, Object>();
+        body.put("content", slice.getContent());
+        body.put("page", slice.getNumber());
+        body.put("size", slice.getSize());
+        body.put("hasNext", slice.hasNext());
+
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/archived")
     public ResponseEntity<List<VisitorDTO>> listArchivedVisitors() {
         List<Visitor> visitors = visitorService.listArchivedVisitors();
@@ -1,11 +1,17 @@
 package com.ivisit.backend.dto;
 
+import java.util.List;
+
 public class VisitorRegistrationResponse {
     private String message;
     private Long visitorId;
     private String idImagePath;
     private String personPhotoPath;
     private String timestamp;
+    // true when the ID number matched an already registered visitor, whose id is returned
+    private Boolean existingVisitor;
+    // other visitors with the same ID number, or the same name and date of birth
+    private List<VisitorSummaryDTO> possibleDuplicates;
 
     public VisitorRegistrationResponse() {}
 
@@ -31,4 +37,10 @@ public class VisitorRegistrationResponse {
 
     public String getTimestamp() { return timestamp; }
     public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+    public Boolean getExistingVisitor() { return existingVisitor; }
+    public void setExistingVisitor(Boolean existingVisitor) { this.existingVisitor = existingVisitor; }
+
+    public List<VisitorSummaryDTO> getPossibleDuplicates() { return possibleDuplicates; }
+    public void setPossibleDuplicates(List<VisitorSummaryDTO> possibleDuplicates) { this.possibleDuplicates = possibleDuplicates; }
 }
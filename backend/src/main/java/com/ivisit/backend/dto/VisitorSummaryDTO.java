@@ -0,0 +1,65 @@
+package com.ivisit.backend.dto;
+
+// Directory row, selected straight into the DTO (no Visitor entity is loaded)
+public class VisitorSummaryDTO {
+    private Long visitorID;
+    private String visitorName;
+    private String idType;
+    private String idNumber;
+    private String visitorType;
+    private String photoPath;
+
+    public VisitorSummaryDTO() {}
+
+    public VisitorSummaryDTO(Long visitorID, String visitorName, String idType,
+                             String idNumber, String visitorType, String photoPath) {
+        this.visitorID = visitorID;
+        this.visitorName = visitorName;
+        this.idType = idType;
+        this.idNumber = idNumber;
+        this.visitorType = visitorType;
+        this.photoPath = photoPath;
+    }
+
+    public Long getVisitorID() {
+        return visitorID;
+    }
+    public void setVisitorID(Long visitorID) {
+        this.visitorID = visitorID;
+    }
+
+    public String getVisitorName() {
+        return visitorName;
+    }
+    public void setVisitorName(String visitorName) {
+        this.visitorName = visitorName;
+    }
+
+    public String getIdType() {
+        return idType;
+    }
+    public void setIdType(String idType) {
+        this.idType = idType;
+    }
+
+    public String getIdNumber() {
+        return idNumber;
+    }
+    public void setIdNumber(String idNumber) {
+        this.idNumber = idNumber;
+    }
+
+    public String getVisitorType() {
+        return visitorType;
+    }
+    public void setVisitorType(String visitorType) {
+        this.visitorType = visitorType;
+    }
+
+    public String getPhotoPath() {
+        return photoPath;
+    }
+    public void setPhotoPath(String photoPath) {
+        this.photoPath = photoPath;
+    }
+}
@@ -7,6 +7,7 @@ import com.ivisit.backend.repository.VisitorLogEntryRepository;
 import com.ivisit.backend.repository.VisitorLogRepository;
 import com.ivisit.backend.repository.VisitorRepository;
 import com.ivisit.backend.service.ArchiveService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -35,6 +36,7 @@ public class VisitorArchiveScheduler {
     @Autowired
     private ArchiveService archiveService;
 
+    @Timed("ivisit.archive.scheduler")
     @Scheduled(cron = "0 30 2 * * ?")
     public void archiveOldVisitorsWithLogs() {
         LocalDate oneYearAgo = LocalDate.now().minus(1, ChronoUnit.YEARS);
@@ -1,9 +1,15 @@
 package com.ivisit.backend.model;
 
+import com.ivisit.backend.config.CacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.STATION_REGION)
 public class Station {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,7 +25,10 @@ public class Station {
     @OneToMany(mappedBy = "station", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<VisitorLogEntry> visitorLogEntries;
 
+    // Inverse side: Hibernate does not refresh this cached collection when
+    // UserAccount.assignedStations changes, UserAccountService evicts it
     @ManyToMany(mappedBy = "assignedStations")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.STATION_USERS_REGION)
     private List<UserAccount> assignedUsers;
 
     // Constructors, getters, and setters
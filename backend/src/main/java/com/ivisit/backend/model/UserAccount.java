@@ -1,10 +1,16 @@
 package com.ivisit.backend.model;
 
+import com.ivisit.backend.config.CacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.sql.Timestamp;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USER_ACCOUNT_REGION)
 public class UserAccount {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +26,7 @@ public class UserAccount {
     private Boolean twoFactorEnabled;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USER_STATIONS_REGION)
     @JoinTable(
             name = "user_station_link", // name of the join (link) table
             joinColumns = @JoinColumn(name = "user_id"), // foreign key from UserAccount
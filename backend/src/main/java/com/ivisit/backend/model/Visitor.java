@@ -2,9 +2,19 @@ package com.ivisit.backend.model;
 
 import javax.persistence.*;
 import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_visitor_normalized_name", columnList = "normalized_name"),
+        @Index(name = "idx_visitor_normalized_id_number", columnList = "normalized_id_number")
+})
 public class Visitor {
 
     @Id
@@ -28,6 +38,30 @@ public class Visitor {
     private String photoPath;
     private String idImagePath;
 
+    // Search keys for the visitor directory, derived from visitorName and idNumber
+    @Column(name = "normalized_name")
+    private String normalizedName;
+
+    @Column(name = "normalized_id_number")
+    private String normalizedIdNumber;
+
+    // Every name word plus the ID number, indexed, so "starts with" on any of
+    // them is an index range scan instead of a LIKE '% q%' over the whole table
+    @ElementCollection
+    @CollectionTable(
+            name = "visitor_search_token",
+            joinColumns = @JoinColumn(name = "visitor_id"),
+            indexes = @Index(name = "idx_visitor_search_token", columnList = "token")
+    )
+    @Column(name = "token")
+    private Set<String> searchTokens = new HashSet<>();
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updateSearchKeys();
+    }
+
     public Visitor() {}
 
     public Visitor(String visitorName, String visitorType, String idType, String idNumber, Date dateOfBirth, Timestamp createdAt) {
@@ -119,4 +153,68 @@ public class Visitor {
     public void setArchivedAt(Timestamp archivedAt) {
         this.archivedAt = archivedAt;
     }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public String getNormalizedIdNumber() {
+        return normalizedIdNumber;
+    }
+
+    public Set<String> getSearchTokens() {
+        return searchTokens;
+    }
+
+    /**
+     * Recomputes the search keys. The token collection is only touched when
+     * the name or ID number changed, so saving an otherwise edited visitor
+     * (e.g. archiving) never loads it.
+     */
+    public void updateSearchKeys() {
+        String name = normalizeName(visitorName);
+        String id = normalizeIdNumber(idNumber);
+        if (Objects.equals(name, normalizedName) && Objects.equals(id, normalizedIdNumber)) {
+            return;
+        }
+        this.normalizedName = name;
+        this.normalizedIdNumber = id;
+
+        Set<String> tokens = new HashSet<>();
+        if (name != null) {
+            tokens.addAll(Arrays.asList(name.split(" ")));
+        }
+        if (id != null) {
+            tokens.add(searchToken(id));
+        }
+        searchTokens.clear();
+        searchTokens.addAll(tokens);
+    }
+
+    /**
+     * Lower case, accents and punctuation dropped, single spaces:
+     * "  Dela Cruz,  José " becomes "dela cruz jose".
+     */
+    public static String normalizeName(String name) {
+        if (name == null) return null;
+        String plain = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        String cleaned = plain.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+
+    /**
+     * Lower-cased form of a normalized ID number, as stored in searchTokens.
+     */
+    public static String searchToken(String normalizedIdNumber) {
+        return normalizedIdNumber == null ? null : normalizedIdNumber.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Upper case letters and digits only: "ab-123 45" becomes "AB12345".
+     */
+    public static String normalizeIdNumber(String idNumber) {
+        if (idNumber == null) return null;
+        String cleaned = idNumber.toUpperCase(Locale.ROOT).replaceAll("[^\\p{Alnum}]", "");
+        return cleaned.isEmpty() ? null : cleaned;
+    }
 }
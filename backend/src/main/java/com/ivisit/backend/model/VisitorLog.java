@@ -8,7 +8,8 @@ import java.util.List;
 public class VisitorLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visitor_log_seq")
+    @SequenceGenerator(name = "visitor_log_seq", sequenceName = "visitor_log_seq", allocationSize = 50)
     private Long visitorLogID;
 
     @ManyToOne
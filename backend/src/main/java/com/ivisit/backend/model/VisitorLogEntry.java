@@ -6,8 +6,10 @@ import java.sql.Timestamp;
 @Entity
 public class VisitorLogEntry {
 
+    // Pooled sequence ids, unlike IDENTITY, let Hibernate batch entry inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visitor_log_entry_seq")
+    @SequenceGenerator(name = "visitor_log_entry_seq", sequenceName = "visitor_log_entry_seq", allocationSize = 50)
     private Long visitorLogEntryID;
 
     @ManyToOne
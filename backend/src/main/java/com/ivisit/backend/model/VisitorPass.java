@@ -1,8 +1,14 @@
 package com.ivisit.backend.model;
 
+import com.ivisit.backend.config.CacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.VISITOR_PASS_REGION)
 public class VisitorPass {
 
     @Id
@@ -7,7 +7,8 @@ import java.sql.Timestamp;
 public class VisitorPassIncident {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visitor_pass_incident_seq")
+    @SequenceGenerator(name = "visitor_pass_incident_seq", sequenceName = "visitor_pass_incident_seq", allocationSize = 50)
     private Long incidentId;
 
     // Which pass the incident is about (required)
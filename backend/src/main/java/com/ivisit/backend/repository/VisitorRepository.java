@@ -1,17 +1,28 @@
 package com.ivisit.backend.repository;
 
+import com.ivisit.backend.dto.VisitorSummaryDTO;
 import com.ivisit.backend.model.Visitor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.util.Date;
 import java.util.List;
 
 @Repository
 public interface VisitorRepository extends JpaRepository<Visitor, Long> {
     Visitor findByIdNumber(String idNumber);
     boolean existsByIdNumber(String idNumber);
+    List<Visitor> findByNormalizedIdNumber(String normalizedIdNumber);
+    List<Visitor> findByNormalizedNameAndDateOfBirth(String normalizedName, Date dateOfBirth);
+
+    // normalizedIdNumber, normalizedName, dateOfBirth of every visitor, for VisitorMatcher
+    @Query("SELECT v.normalizedIdNumber, v.normalizedName, v.dateOfBirth FROM Visitor v")
+    List<Object[]> findMatchKeys();
     List<Visitor> findByArchivedFalseOrArchivedIsNull();
     List<Visitor> findByArchivedFalseOrArchivedIsNullAndCreatedAtBefore(Timestamp cutoff);
     List<Visitor> findByArchivedTrue();
@@ -21,4 +32,32 @@ public interface VisitorRepository extends JpaRepository<Visitor, Long> {
             "AND (:from IS NULL OR COALESCE(v.archivedAt, v.createdAt) >= :from) " +
             "AND (:to IS NULL   OR COALESCE(v.archivedAt, v.createdAt) < :to)")
     List<Visitor> findArchivedInRange(Timestamp from, Timestamp to);
+
+    String SUMMARY = "new com.ivisit.backend.dto.VisitorSummaryDTO(" +
+            "v.visitorID, v.visitorName, v.idType, v.idNumber, v.visitorType, v.photoPath)";
+    String NOT_ARCHIVED = "(v.archived = FALSE OR v.archived IS NULL)";
+
+    @Query("SELECT " + SUMMARY + " FROM Visitor v WHERE " + NOT_ARCHIVED)
+    Slice<VisitorSummaryDTO> findDirectory(Pageable pageable);
+
+    // Driven by the token index (tokenPattern is a plain prefix like "mari%"), then
+    // narrowed to name prefix, name word prefix or ID number prefix matches.
+    // Arguments are normalized (see Visitor), so they never contain LIKE wildcards.
+    @Query("SELECT DISTINCT " + SUMMARY + " FROM Visitor v JOIN v.searchTokens t " +
+            "WHERE t LIKE :tokenPattern " +
+            "AND " + NOT_ARCHIVED + " " +
+            "AND (v.normalizedName LIKE CONCAT(:name, '%') " +
+            "  OR v.normalizedName LIKE CONCAT('% ', :name, '%') " +
+            "  OR (:idNumber IS NOT NULL AND v.normalizedIdNumber LIKE CONCAT(:idNumber, '%')))")
+    Slice<VisitorSummaryDTO> searchDirectory(@Param("tokenPattern") String tokenPattern,
+                                             @Param("name") String name,
+                                             @Param("idNumber") String idNumber,
+                                             Pageable pageable);
+
+    @Query("SELECT v FROM Visitor v " +
+            "WHERE v.visitorID > :afterId " +
+            "AND ((v.normalizedName IS NULL AND v.visitorName IS NOT NULL) " +
+            "  OR (v.normalizedIdNumber IS NULL AND v.idNumber IS NOT NULL)) " +
+            "ORDER BY v.visitorID")
+    List<Visitor> findMissingSearchKeys(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -7,6 +7,8 @@ import com.ivisit.backend.repository.VisitorLogEntryRepository;
 import com.ivisit.backend.repository.VisitorLogRepository;
 import com.ivisit.backend.repository.VisitorRepository;
 import com.lowagie.text.DocumentException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -31,10 +33,14 @@ public class ArchiveService {
     @Autowired
     private ExportService exportService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Archives the given visitors + their finished logs + entries.
      * Sets archived flags + a single shared archivedAt timestamp.
      */
+    @Timed("ivisit.archive.batch")
     public void archiveVisitorsWithRelatedData(
             List<Visitor> visitors,
             List<VisitorLog> logs,
@@ -72,6 +78,10 @@ public class ArchiveService {
             }
             visitorLogEntryRepository.saveAll(entries);
         }
+
+        meterRegistry.counter("ivisit.archive.rows", "type", "visitors").increment(visitors.size());
+        meterRegistry.counter("ivisit.archive.rows", "type", "logs").increment(logs != null ? logs.size() : 0);
+        meterRegistry.counter("ivisit.archive.rows", "type", "entries").increment(entries != null ? entries.size() : 0);
     }
 
     // ----------------------------------------------------------------
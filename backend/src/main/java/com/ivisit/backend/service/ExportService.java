@@ -13,6 +13,7 @@ import com.lowagie.text.Phrase;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
@@ -29,6 +30,7 @@ public class ExportService {
 
     // ---------- CSV builders (used by ArchiveCenter + Visitors exports) ----------
 
+    @Timed(value = "ivisit.export", extraTags = {"format", "csv", "report", "visitors"})
     public byte[] buildVisitorsCsv(List<Visitor> visitors) {
         List<String> lines = new ArrayList<>();
         lines.add("visitorID,visitorName,visitorType,gender,idType,idNumber,dateOfBirth,createdAt,archived,archivedAt");
@@ -68,6 +70,7 @@ public class ExportService {
         return csv.getBytes(StandardCharsets.UTF_8);
     }
 
+    @Timed(value = "ivisit.export", extraTags = {"format", "csv", "report", "logs"})
     public byte[] buildLogsCsv(List<VisitorLog> logs) {
         List<String> lines = new ArrayList<>();
         lines.add("visitorLogID,visitorID,purposeOfVisit,passLabel,activeStart,activeEnd,firstLocation,lastLocation,archived,archivedAt");
@@ -136,6 +139,7 @@ public class ExportService {
         return csv.getBytes(StandardCharsets.UTF_8);
     }
 
+    @Timed(value = "ivisit.export", extraTags = {"format", "csv", "report", "entries"})
     public byte[] buildEntriesCsv(List<VisitorLogEntry> entries) {
         List<String> lines = new ArrayList<>();
         lines.add("visitorLogEntryID,visitorLogID,stationName,guardName,passLabel,timestamp,archived,archivedAt");
@@ -199,6 +203,7 @@ public class ExportService {
 
     // ---------- Archive report PDF (ArchiveCenter) ----------
 
+    @Timed(value = "ivisit.export", extraTags = {"format", "pdf", "report", "archive"})
     public byte[] buildArchiveReportPdf(
             List<Visitor> visitors,
             List<VisitorLog> logs,
@@ -437,6 +442,7 @@ public class ExportService {
 
     // ---------- Visitors selection PDF (Visitors page export, with stats) ----------
 
+    @Timed(value = "ivisit.export", extraTags = {"format", "pdf", "report", "visitors-selection"})
     public byte[] buildVisitorsSelectionPdf(
             List<Visitor> visitors,
             List<VisitorLog> logs,
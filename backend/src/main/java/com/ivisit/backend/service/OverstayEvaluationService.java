@@ -6,6 +6,8 @@ import com.ivisit.backend.model.VisitorLogEntry;
 import com.ivisit.backend.model.VisitorPass;
 import com.ivisit.backend.repository.VisitorLogRepository;
 import com.ivisit.backend.repository.VisitorPassRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,10 +35,15 @@ public class OverstayEvaluationService {
     @Autowired
     private VisitorPassIncidentService incidentService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Timed("ivisit.overstay.evaluation")
     @Transactional
     public void evaluateOverstays() {
         List<VisitorLog> activeLogs = visitorLogRepository.findActiveLogsWithEntries();
         Timestamp now = new Timestamp(System.currentTimeMillis());
+        meterRegistry.summary("ivisit.overstay.active.logs").record(activeLogs.size());
 
         for (VisitorLog visitorLog : activeLogs) {
             try {
@@ -62,14 +69,17 @@ public class OverstayEvaluationService {
                 if (hours >= HARD_OVERSTAY_HOURS) {
                     // Hard overstay: lock and end
                     markLogAsHardOverstay(visitorLog, now);
+                    meterRegistry.counter("ivisit.overstay.flagged", "level", "hard").increment();
                 } else if (hours >= SOFT_OVERSTAY_HOURS) {
                     // Soft overstay: mark as ACTIVE_OVERSTAY if not already
                     if ("ACTIVE".equals(status)) {
                         visitorLog.setStatus("ACTIVE_OVERSTAY");
                         visitorLogRepository.save(visitorLog);
+                        meterRegistry.counter("ivisit.overstay.flagged", "level", "soft").increment();
                     }
                 }
             } catch (Exception ex) {
+                meterRegistry.counter("ivisit.overstay.failures").increment();
                 log.error(
                         "Overstay evaluation failed for VisitorLog ID {}: {}",
                         visitorLog.getVisitorLogID(),
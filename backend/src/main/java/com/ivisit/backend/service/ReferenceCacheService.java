@@ -0,0 +1,46 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.model.Station;
+import com.ivisit.backend.model.UserAccount;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Explicit invalidation for the second-level cache regions in CacheConfig.
+ *
+ * Entity updates and deletes made through repositories already refresh the
+ * cache. What Hibernate cannot see is the other side of a relationship:
+ * Station.assignedUsers is only written through UserAccount, and a deleted
+ * station stays listed in the cached assignedStations of its guards.
+ */
+@Service
+public class ReferenceCacheService {
+
+    private static final String STATION_USERS_ROLE = Station.class.getName() + ".assignedUsers";
+    private static final String USER_STATIONS_ROLE = UserAccount.class.getName() + ".assignedStations";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Call after a guard/station assignment changes from the UserAccount side.
+     */
+    public void evictStationAssignments() {
+        cache().evictCollectionData(STATION_USERS_ROLE);
+    }
+
+    /**
+     * Call after a station is deleted, so no guard keeps it in a cached assignment list.
+     */
+    public void evictUserAssignments() {
+        cache().evictCollectionData(USER_STATIONS_ROLE);
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -17,6 +17,9 @@ public class StationService {
     @Autowired
     private StationRepository stationRepository;
 
+    @Autowired
+    private ReferenceCacheService referenceCacheService;
+
     public List<Station> getAllStations() {
         return stationRepository.findAll();
     }
@@ -91,6 +94,7 @@ public class StationService {
             throw new RuntimeException("Station not found");
         }
         stationRepository.deleteById(id);
+        referenceCacheService.evictUserAssignments();
     }
 
     public Station setStationActive(Long id, boolean active) {
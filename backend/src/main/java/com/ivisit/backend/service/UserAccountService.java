@@ -31,6 +31,9 @@ public class UserAccountService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ReferenceCacheService referenceCacheService;
+
     public List<UserAccount> getAllUsers() {
         return userAccountRepository.findAll();
     }
@@ -68,6 +71,9 @@ public class UserAccountService {
         user.setEmailVerifiedAt(null);
 
         UserAccount saved = userAccountRepository.save(user);
+        if (saved.getAssignedStations() != null && !saved.getAssignedStations().isEmpty()) {
+            referenceCacheService.evictStationAssignments();
+        }
 
         emailVerificationService.createAndSendToken(saved);
 
@@ -111,6 +117,9 @@ public class UserAccountService {
         }
 
         UserAccount saved = userAccountRepository.save(existing);
+        if (updatedUser.getAssignedStations() != null) {
+            referenceCacheService.evictStationAssignments();
+        }
 
         if (emailChanged) {
             emailVerificationService.createAndSendToken(saved);
@@ -124,6 +133,7 @@ public class UserAccountService {
             throw new RuntimeException("User not found");
         }
         userAccountRepository.deleteById(id);
+        referenceCacheService.evictStationAssignments();
     }
 
     public UserAccount assignStation(Long userId, Long stationId) {
@@ -167,7 +177,9 @@ public class UserAccountService {
         }
         assigned.add(station);
 
-        return userAccountRepository.save(user);
+        UserAccount saved = userAccountRepository.save(user);
+        referenceCacheService.evictStationAssignments();
+        return saved;
     }
 
     public Optional<UserAccount> findByEmail(String email) {
@@ -216,7 +228,9 @@ public class UserAccountService {
             user.getAssignedStations().removeIf(st -> st.getId().equals(station.getId()));
         }
 
-        return userAccountRepository.save(user);
+        UserAccount saved = userAccountRepository.save(user);
+        referenceCacheService.evictStationAssignments();
+        return saved;
     }
 
     public Page<UserAccount> searchUsersPaged(String q, int page, int size) {
@@ -3,6 +3,7 @@ package com.ivisit.backend.service;
 import com.ivisit.backend.dto.VisitorLogEntryDTO;
 import com.ivisit.backend.model.*;
 import com.ivisit.backend.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +32,7 @@ public class VisitorLogEntryService {
     /**
      * Creates a new VisitorLogEntry when a visitor checks in or out at a station.
      */
+    @Timed("ivisit.entry.record")
     public VisitorLogEntry recordEntry(Long visitorLogId, Long stationId, Long accountId) {
         Optional<VisitorLog> logOpt = visitorLogRepository.findById(visitorLogId);
         Optional<Station> stationOpt = stationRepository.findById(stationId);
@@ -3,6 +3,7 @@ package com.ivisit.backend.service;
 import com.ivisit.backend.dto.VisitorLogDTO;
 import com.ivisit.backend.model.*;
 import com.ivisit.backend.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -37,6 +38,7 @@ public class VisitorLogService {
     /**
      * Creates a new VisitorLog when a visitor enters.
      */
+    @Timed(value = "ivisit.checkin", extraTags = {"flow", "basic"})
     public VisitorLog createLog(Long visitorId, Long passId) {
         Optional<Visitor> visitorOpt = visitorRepository.findById(visitorId);
         Optional<VisitorPass> passOpt = visitorPassRepository.findById(passId);
@@ -97,6 +99,7 @@ public class VisitorLogService {
      * Creates a VisitorLog with purpose + allowed stations
      * and (optionally) records the initial checkpoint entry.
      */
+    @Timed(value = "ivisit.checkin", extraTags = {"flow", "details"})
     public VisitorLog createLogWithDetails(Long visitorId,
                                            Long passId,
                                            String purposeOfVisit,
@@ -178,6 +181,7 @@ public class VisitorLogService {
     /**
      * Marks a VisitorLog as completed (when visitor exits).
      */
+    @Timed("ivisit.checkout")
     public VisitorLog endLog(Long visitorLogId, Long stationId, Long guardAccountId) {
         VisitorLog log = visitorLogRepository.findById(visitorLogId)
                 .orElseThrow(() -> new RuntimeException("VisitorLog not found"));
@@ -296,8 +300,9 @@ public class VisitorLogService {
     /**
      * Map a VisitorLog entity into VisitorLogDTO used by the frontend LogBook.
      * Conservative: fills missing values with sensible defaults.
+     * Package-private so the JMH benchmarks can map fixtures without a database.
      */
-    private VisitorLogDTO mapToDTO(VisitorLog log) {
+    VisitorLogDTO mapToDTO(VisitorLog log) {
         Visitor visitor = log.getVisitor();
         VisitorPass pass = log.getVisitorPass();
 
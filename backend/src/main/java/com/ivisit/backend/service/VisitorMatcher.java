@@ -0,0 +1,290 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.model.Visitor;
+import com.ivisit.backend.repository.VisitorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds an already registered visitor for a new registration.
+ *
+ * A visitor with the same normalized ID number and ID type, no conflicting
+ * date of birth, and either the same normalized name or the same known date
+ * of birth is the same person. Other visitors sharing the ID number, or
+ * sharing name and date of birth, are returned as possible duplicates for
+ * the guard to check.
+ *
+ * Most registrations are first-time visitors, so a Bloom filter over the ID
+ * and name/birth-date keys answers "definitely not registered" without
+ * touching the database. The filter is rebuilt from the table at startup and
+ * periodically, and every registration through this instance adds its keys,
+ * so on a single instance it never gives a false "no". Visitors registered
+ * through another instance are only seen after the next rebuild; set
+ * app.visitor.dedup.filter-enabled=false when more than one instance writes
+ * visitors. A false "maybe" only costs the indexed lookup it would have done
+ * anyway.
+ */
+@Service
+public class VisitorMatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitorMatcher.class);
+
+    private static final int MAX_CANDIDATES = 5;
+
+    @Autowired
+    private VisitorRepository visitorRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.visitor.dedup.expected-visitors:100000}")
+    private int expectedVisitors;
+
+    @Value("${app.visitor.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Off: every registration queries the table (needed with several backend instances)
+    @Value("${app.visitor.dedup.filter-enabled:true}")
+    private boolean filterEnabled;
+
+    // null until the first build; every key "might" be present until then
+    private volatile KeyFilter filter;
+    // Set while a rebuild reads the table, so keys added meanwhile reach the new filter too
+    private volatile KeyFilter building;
+
+    public static class Match {
+        private final Visitor existing;
+        private final List<Visitor> candidates;
+
+        Match(Visitor existing, List<Visitor> candidates) {
+            this.existing = existing;
+            this.candidates = candidates;
+        }
+
+        public Visitor getExisting() {
+            return existing;
+        }
+
+        public List<Visitor> getCandidates() {
+            return candidates;
+        }
+    }
+
+    public Match match(String visitorName, String idNumber, String idType, Date dateOfBirth) {
+        String normalizedId = Visitor.normalizeIdNumber(idNumber);
+        String normalizedName = Visitor.normalizeName(visitorName);
+
+        Map<Long, Visitor> candidates = new LinkedHashMap<>();
+        List<Visitor> sameId = Collections.emptyList();
+        if (normalizedId != null && mightContain(idKey(normalizedId))) {
+            sameId = visitorRepository.findByNormalizedIdNumber(normalizedId);
+        }
+
+        // An ID number alone can be misread or reused, so the name or birth date must back it up.
+        // Oldest active row first, so a table that already holds duplicates keeps converging on one
+        Visitor existing = sameId.stream()
+                .filter(v -> sameIdType(v.getIdType(), idType)
+                        && sameDateOfBirth(v.getDateOfBirth(), dateOfBirth)
+                        && ((normalizedName != null && normalizedName.equals(v.getNormalizedName()))
+                                || knownSameDateOfBirth(v.getDateOfBirth(), dateOfBirth)))
+                .min(Comparator.comparing((Visitor v) -> Boolean.TRUE.equals(v.getArchived()))
+                        .thenComparing(Visitor::getVisitorID))
+                .orElse(null);
+        if (existing != null) {
+            return new Match(existing, Collections.<Visitor>emptyList());
+        }
+        for (Visitor v : sameId) {
+            candidates.put(v.getVisitorID(), v);
+        }
+
+        if (normalizedName != null && dateOfBirth != null
+                && mightContain(nameKey(normalizedName, dateOfBirth))) {
+            for (Visitor v : visitorRepository.findByNormalizedNameAndDateOfBirth(normalizedName, dateOfBirth)) {
+                candidates.put(v.getVisitorID(), v);
+            }
+        }
+
+        List<Visitor> list = new ArrayList<>(candidates.values());
+        return new Match(null, list.size() > MAX_CANDIDATES ? list.subList(0, MAX_CANDIDATES) : list);
+    }
+
+    /**
+     * Adds a newly saved visitor's keys. Call after every insert that did not go through a rebuild.
+     */
+    public void remember(Visitor visitor) {
+        add(visitor.getNormalizedIdNumber(), visitor.getNormalizedName(), visitor.getDateOfBirth());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    // Also grows the filter as the table grows, keeping the false-positive rate near its target
+    @Scheduled(fixedDelayString = "${app.visitor.dedup.rebuild-ms:3600000}",
+            initialDelayString = "${app.visitor.dedup.rebuild-ms:3600000}")
+    public void rebuild() {
+        if (!filterEnabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Object[]> keys = null;
+        KeyFilter next;
+        synchronized (this) {
+            long count = visitorRepository.count();
+            next = new KeyFilter(Math.max(expectedVisitors, count * 2) * 2, falsePositiveRate);
+            building = next;
+            try {
+                keys = visitorRepository.findMatchKeys();
+                for (Object[] row : keys) {
+                    addTo(next, (String) row[0], (String) row[1], (Date) row[2]);
+                }
+                filter = next;
+            } finally {
+                building = null;
+            }
+        }
+        log.info("Visitor match filter built from {} visitors in {} ms ({} KiB)",
+                keys.size(), (System.nanoTime() - start) / 1_000_000, next.sizeBytes() / 1024);
+    }
+
+    private boolean mightContain(String key) {
+        KeyFilter current = filter;
+        boolean maybe = !filterEnabled || current == null || current.mightContain(key);
+        meterRegistry.counter("ivisit.visitor.match.lookups", "result", maybe ? "queried" : "skipped").increment();
+        return maybe;
+    }
+
+    /**
+     * The visitor row is already saved, so building is read before filter:
+     * a rebuild in progress at that read gets the keys here, and any rebuild
+     * that starts later reads the row from the table.
+     */
+    private void add(String normalizedId, String normalizedName, Date dateOfBirth) {
+        KeyFilter next = building;
+        KeyFilter current = filter;
+        if (next != null) {
+            addTo(next, normalizedId, normalizedName, dateOfBirth);
+        }
+        if (current != null && current != next) {
+            addTo(current, normalizedId, normalizedName, dateOfBirth);
+        }
+    }
+
+    private static void addTo(KeyFilter target, String normalizedId, String normalizedName, Date dateOfBirth) {
+        if (normalizedId != null) {
+            target.add(idKey(normalizedId));
+        }
+        if (normalizedName != null && dateOfBirth != null) {
+            target.add(nameKey(normalizedName, dateOfBirth));
+        }
+    }
+
+    private static String idKey(String normalizedId) {
+        return "id:" + normalizedId;
+    }
+
+    private static String nameKey(String normalizedName, Date dateOfBirth) {
+        return "name:" + normalizedName + "|" + dateKey(dateOfBirth);
+    }
+
+    // java.sql.Date from the database and java.util.Date from registration compare by calendar day
+    private static String dateKey(Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate().toString();
+    }
+
+    private static boolean sameIdType(String a, String b) {
+        return a == null || b == null || a.trim().equalsIgnoreCase(b.trim());
+    }
+
+    private static boolean sameDateOfBirth(Date a, Date b) {
+        return a == null || b == null || dateKey(a).equals(dateKey(b));
+    }
+
+    private static boolean knownSameDateOfBirth(Date a, Date b) {
+        return a != null && b != null && dateKey(a).equals(dateKey(b));
+    }
+
+    /**
+     * Bloom filter over strings: k bit positions per key from the two 32-bit
+     * halves of one 64-bit hash (Kirsch-Mitzenmacher double hashing).
+     * Lock-free; bits are only ever set.
+     */
+    private static final class KeyFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        KeyFilter(long expectedKeys, double falsePositiveRate) {
+            long n = Math.max(1, expectedKeys);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (m + 63) / 64));
+            this.bitCount = (long) bits.length() * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long old;
+                do {
+                    old = bits.get(word);
+                } while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeBytes() {
+            return bitCount / 8;
+        }
+
+        // FNV-1a, then the MurmurHash3 finalizer so both halves are well mixed
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
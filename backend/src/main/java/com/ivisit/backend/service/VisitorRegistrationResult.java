@@ -0,0 +1,32 @@
+package com.ivisit.backend.service;
+
+import com.ivisit.backend.model.Visitor;
+
+import java.util.List;
+
+// Outcome of VisitorService.registerVisitor: the saved or matched visitor, plus near matches to review
+public class VisitorRegistrationResult {
+
+    private final Visitor visitor;
+    private final boolean existing;
+    private final List<Visitor> possibleDuplicates;
+
+    public VisitorRegistrationResult(Visitor visitor, boolean existing, List<Visitor> possibleDuplicates) {
+        this.visitor = visitor;
+        this.existing = existing;
+        this.possibleDuplicates = possibleDuplicates;
+    }
+
+    public Visitor getVisitor() {
+        return visitor;
+    }
+
+    // True when the registration matched an already registered visitor instead of creating one
+    public boolean isExisting() {
+        return existing;
+    }
+
+    public List<Visitor> getPossibleDuplicates() {
+        return possibleDuplicates;
+    }
+}
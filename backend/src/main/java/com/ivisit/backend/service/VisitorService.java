@@ -1,12 +1,18 @@
 package com.ivisit.backend.service;
 
+import com.ivisit.backend.dto.VisitorSummaryDTO;
 import com.ivisit.backend.model.Visitor;
 import com.ivisit.backend.model.VisitorLog;
 import com.ivisit.backend.model.VisitorLogEntry;
 import com.ivisit.backend.repository.VisitorLogEntryRepository;
 import com.ivisit.backend.repository.VisitorLogRepository;
 import com.ivisit.backend.repository.VisitorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -24,6 +30,7 @@ import java.util.stream.Collectors;
 public class VisitorService {
 
     private static final String UPLOAD_DIR = "uploads/";
+    private static final int DIRECTORY_MAX_PAGE_SIZE = 100;
 
     @Autowired
     private VisitorRepository visitorRepository;
@@ -37,6 +44,12 @@ public class VisitorService {
     @Autowired
     private ArchiveService archiveService;
 
+    @Autowired
+    private VisitorMatcher visitorMatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     public Visitor registerVisitor(String visitorName,
                                    String dateOfBirthStr,
                                    String idNumber,
@@ -67,11 +80,13 @@ public class VisitorService {
 
         visitor.setGender(effectiveGender);
 
-        return visitorRepository.save(visitor);
+        Visitor saved = visitorRepository.save(visitor);
+        visitorMatcher.remember(saved);
+        return saved;
     }
 
-    // overload that stores file paths
-    public Visitor registerVisitor(
+    // overload that stores file paths, and returns a returning visitor instead of registering them again
+    public VisitorRegistrationResult registerVisitor(
             String visitorName,
             String dob,
             String idNumber,
@@ -82,8 +97,19 @@ public class VisitorService {
             String personPhotoPath
     ) throws ParseException {
 
-        // Reuse the existing logic
-        Visitor v = registerVisitor(visitorName, dob, idNumber, idType, visitorType, gender);
+        Date dateOfBirth = new SimpleDateFormat("yyyy-MM-dd").parse(dob);
+        VisitorMatcher.Match match = visitorMatcher.match(visitorName, idNumber, idType, dateOfBirth);
+
+        Visitor v = match.getExisting();
+        boolean existing = v != null;
+        if (existing) {
+            // A returning visitor that was archived becomes active again
+            v.setArchived(false);
+            v.setArchivedAt(null);
+        } else {
+            // Reuse the existing logic
+            v = registerVisitor(visitorName, dob, idNumber, idType, visitorType, gender);
+        }
 
         if (idImagePath != null && !idImagePath.isEmpty()) {
             v.setIdImagePath(idImagePath);
@@ -92,7 +118,8 @@ public class VisitorService {
             v.setPhotoPath(personPhotoPath);
         }
 
-        return visitorRepository.save(v);
+        meterRegistry.counter("ivisit.visitor.registrations", "outcome", existing ? "matched" : "new").increment();
+        return new VisitorRegistrationResult(visitorRepository.save(v), existing, match.getCandidates());
     }
 
     public List<Visitor> listAllVisitors() {
@@ -103,6 +130,40 @@ public class VisitorService {
         return visitorRepository.findByArchivedTrue();
     }
 
+    /**
+     * Non-archived visitors whose name starts with q, has a word starting
+     * with q, or whose ID number starts with q. Case, accents and
+     * punctuation are ignored on both sides. Returns a Slice: the gate only
+     * needs "more results", and skipping the count keeps a broad search cheap.
+     */
+    public Slice<VisitorSummaryDTO> searchDirectory(String q, int page, int size) {
+        if (page < 0) page = 0;
+        if (size <= 0) size = 25;
+        if (size > DIRECTORY_MAX_PAGE_SIZE) size = DIRECTORY_MAX_PAGE_SIZE;
+
+        if (q == null || q.trim().isEmpty()) {
+            return visitorRepository.findDirectory(
+                    PageRequest.of(page, size, Sort.by("normalizedName").and(Sort.by("visitorID"))));
+        }
+
+        // The search is SELECT DISTINCT, which can only be ordered by selected columns
+        PageRequest pageable = PageRequest.of(page, size, Sort.by("visitorName").and(Sort.by("visitorID")));
+        String name = Visitor.normalizeName(q);
+        if (name == null) {
+            return new SliceImpl<>(Collections.<VisitorSummaryDTO>emptyList(), pageable, false);
+        }
+
+        // Index probe: the first word starts a token of every name match and of
+        // the ID token of every ID match. A query with digits is an ID number
+        // (names have none), and its whole normalized form narrows far better
+        // than a first word like "syn" shared by a whole batch of IDs.
+        String idNumber = Visitor.normalizeIdNumber(q);
+        String probe = idNumber != null && idNumber.matches(".*\\d.*")
+                ? Visitor.searchToken(idNumber)
+                : name.split(" ")[0];
+        return visitorRepository.searchDirectory(probe + "%", name, idNumber, pageable);
+    }
+
     public String saveFile(byte[] fileBytes, String originalName, String prefix) throws IOException {
         File uploadDir = new File(UPLOAD_DIR);
         if (!uploadDir.exists()) uploadDir.mkdirs();
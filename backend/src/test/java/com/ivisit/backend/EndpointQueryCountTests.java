@@ -0,0 +1,96 @@
+package com.ivisit.backend;
+
+import com.ivisit.backend.model.Station;
+import com.ivisit.backend.model.UserAccount;
+import com.ivisit.backend.model.Visitor;
+import com.ivisit.backend.model.VisitorLog;
+import com.ivisit.backend.model.VisitorLogEntry;
+import com.ivisit.backend.repository.StationRepository;
+import com.ivisit.backend.repository.UserAccountRepository;
+import com.ivisit.backend.repository.VisitorLogRepository;
+import com.ivisit.backend.repository.VisitorRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ivisit.backend.QueryCountAssertions.assertMaxQueries;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the list endpoints against N+1 loading. With batch fetching a log
+ * list costs one statement for the logs plus one per association (visitor,
+ * pass, entries, allowed stations); a lazy association walked per row pushes
+ * the count far past these limits.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTests {
+
+	private static final int ACTIVE_VISITS = 10;
+	private static final int LOG_LIST_MAX_QUERIES = 6;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private VisitorRepository visitorRepository;
+
+	@Autowired
+	private VisitorLogRepository visitorLogRepository;
+
+	@Autowired
+	private StationRepository stationRepository;
+
+	@Autowired
+	private UserAccountRepository userAccountRepository;
+
+	@BeforeAll
+	void seedActiveVisits() {
+		// The seeders leave a single active visit; /active needs several to show an N+1
+		List<Station> stations = stationRepository.findAll();
+		UserAccount guard = userAccountRepository.findByUsername("guard_gate1");
+		List<Visitor> visitors = visitorRepository.findAll();
+		long now = System.currentTimeMillis();
+
+		List<VisitorLog> logs = new ArrayList<>();
+		for (int i = 0; i < ACTIVE_VISITS; i++) {
+			Timestamp start = new Timestamp(now - (30 + i) * 60_000L);
+			VisitorLog log = new VisitorLog(visitors.get(i), null, start, null);
+			log.setStatus("ACTIVE");
+			log.setAllowedStations(new ArrayList<>(Arrays.asList(stations.get(0), stations.get(2))));
+			log.setVisitorLogEntries(new ArrayList<>(Arrays.asList(
+					new VisitorLogEntry(log, stations.get(0), guard, start),
+					new VisitorLogEntry(log, stations.get(2), guard, new Timestamp(start.getTime() + 60_000L)))));
+			logs.add(log);
+		}
+		visitorLogRepository.saveAll(logs);
+	}
+
+	@Test
+	void allLogsLoadInBoundedQueries() throws Exception {
+		assertMaxQueries(LOG_LIST_MAX_QUERIES, () -> mockMvc.perform(get("/api/visitorLog/all")).andExpect(status().isOk()));
+	}
+
+	@Test
+	void activeLogsLoadInBoundedQueries() throws Exception {
+		assertMaxQueries(LOG_LIST_MAX_QUERIES, () -> mockMvc.perform(get("/api/visitorLog/active")).andExpect(status().isOk()));
+	}
+
+	@Test
+	void visitorsLoadInBoundedQueries() throws Exception {
+		assertMaxQueries(2, () -> mockMvc.perform(get("/api/visitors")).andExpect(status().isOk()));
+	}
+}
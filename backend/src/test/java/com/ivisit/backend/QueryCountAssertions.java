@@ -0,0 +1,33 @@
+package com.ivisit.backend;
+
+import com.ivisit.backend.config.QueryCounter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement-count assertions on top of the SQL inspection proxy (dev and
+ * test profiles). MockMvc runs requests on the calling thread, so every
+ * statement an endpoint issues, lazy loads included, is counted.
+ */
+public final class QueryCountAssertions {
+
+	@FunctionalInterface
+	public interface Action {
+		void run() throws Exception;
+	}
+
+	private QueryCountAssertions() {
+	}
+
+	public static long countQueries(Action action) throws Exception {
+		long before = QueryCounter.current();
+		action.run();
+		return QueryCounter.current() - before;
+	}
+
+	public static void assertMaxQueries(long max, Action action) throws Exception {
+		long executed = countQueries(action);
+		assertTrue(executed <= max,
+				() -> "Expected at most " + max + " SQL statements but " + executed + " were executed");
+	}
+}
@@ -0,0 +1,89 @@
+package com.ivisit.backend;
+
+import com.ivisit.backend.model.Station;
+import com.ivisit.backend.model.UserAccount;
+import com.ivisit.backend.repository.StationRepository;
+import com.ivisit.backend.repository.UserAccountRepository;
+import com.ivisit.backend.repository.VisitorPassRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.ivisit.backend.QueryCountAssertions.countQueries;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Second-level cache for the reference entities: a repeat lookup by id in a
+ * new session costs no SQL, and guard assignments saved on the UserAccount
+ * side show up on the station's cached guard list.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+class ReferenceCacheTests {
+
+	@Autowired
+	private StationRepository stationRepository;
+
+	@Autowired
+	private VisitorPassRepository visitorPassRepository;
+
+	@Autowired
+	private UserAccountRepository userAccountRepository;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void repeatIdLookupsSkipTheDatabase() throws Exception {
+		Long stationId = stationRepository.findAll().get(0).getId();
+		Long passId = visitorPassRepository.findAll().get(0).getPassID();
+		Long userId = userAccountRepository.findByUsername("guard_gate1").getId();
+
+		// First lookups may load from the database, the repeats must not
+		stationRepository.findById(stationId);
+		visitorPassRepository.findById(passId);
+		userAccountRepository.findById(userId);
+
+		long executed = countQueries(() -> {
+			assertTrue(stationRepository.findById(stationId).isPresent());
+			assertTrue(visitorPassRepository.findById(passId).isPresent());
+			assertTrue(userAccountRepository.findById(userId).isPresent());
+		});
+		assertEquals(0, executed);
+	}
+
+	@Test
+	void guardAssignmentRefreshesCachedStationGuards() throws Exception {
+		Station station = stationRepository.save(new Station("Cache Test Gate", "gate", true));
+		UserAccount guard = userAccountRepository.save(
+				new UserAccount("cache_test_guard", null, "cache_test_guard@example.com", "GUARD", null));
+		String guardsUrl = "/api/stations/" + station.getId() + "/guards";
+
+		// Loads the empty guard list into the cache
+		mockMvc.perform(get(guardsUrl)).andExpect(jsonPath("$", hasSize(0)));
+
+		mockMvc.perform(put(guardsUrl)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"guardIds\":[" + guard.getId() + "]}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get(guardsUrl)).andExpect(jsonPath("$[*].accountID", contains(guard.getId().intValue())));
+
+		mockMvc.perform(put(guardsUrl)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"guardIds\":[]}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get(guardsUrl)).andExpect(jsonPath("$", hasSize(0)));
+	}
+}
@@ -0,0 +1,86 @@
+package com.ivisit.backend;
+
+import com.ivisit.backend.model.Visitor;
+import com.ivisit.backend.repository.VisitorRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static com.ivisit.backend.QueryCountAssertions.assertMaxQueries;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Visitor directory search: name prefix or word prefix and ID number prefix,
+ * ignoring case, accents and punctuation, archived visitors left out, one
+ * statement per request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VisitorDirectoryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private VisitorRepository visitorRepository;
+
+	private Long visitorId;
+
+	@BeforeAll
+	void seedVisitors() {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		Visitor visitor = new Visitor("Xiomara Qüintero-Blanco", "Guest", "PASSPORT", "qx-90 1234", null, now);
+		Visitor archived = new Visitor("Xiomara Archived", "Guest", "PASSPORT", "QX-555", null, now);
+		archived.setArchived(true);
+		visitorRepository.saveAll(Arrays.asList(visitor, archived));
+		visitorId = visitor.getVisitorID();
+	}
+
+	@Test
+	void findsByNamePrefixAndWordPrefix() throws Exception {
+		search("xiom").andExpect(jsonPath("$.content[*].visitorID", contains(visitorId.intValue())));
+		search("QUINTERO").andExpect(jsonPath("$.content[*].visitorID", contains(visitorId.intValue())));
+		search("blanc").andExpect(jsonPath("$.content[*].visitorID", contains(visitorId.intValue())));
+		search("iomara").andExpect(jsonPath("$.content", empty()));
+	}
+
+	@Test
+	void findsByIdNumberPrefixIgnoringSeparators() throws Exception {
+		search("QX 901").andExpect(jsonPath("$.content[*].visitorID", contains(visitorId.intValue())));
+		search("QX-5").andExpect(jsonPath("$.content", empty()));
+	}
+
+	@Test
+	void listsAVisitorOnceWhenSeveralTokensMatch() throws Exception {
+		// "q" starts both the "quintero" name token and the "qx901234" ID token
+		search("q").andExpect(jsonPath("$.content[*].visitorID", contains(visitorId.intValue())));
+	}
+
+	@Test
+	void searchRunsASingleQuery() throws Exception {
+		assertMaxQueries(1, () -> search("xiom"));
+		assertMaxQueries(1, () -> mockMvc.perform(get("/api/visitors/directory").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hasNext").value(true)));
+	}
+
+	private ResultActions search(String q) throws Exception {
+		return mockMvc.perform(get("/api/visitors/directory").param("q", q))
+				.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,137 @@
+package com.ivisit.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivisit.backend.model.Visitor;
+import com.ivisit.backend.repository.VisitorRepository;
+import com.ivisit.backend.service.VisitorMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registration returns an already registered visitor when the ID number
+ * matches after normalization and the name or birth date agrees, and lists
+ * other ID, name and birth-date matches as possible duplicates without
+ * merging them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+class VisitorMatchingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private VisitorRepository visitorRepository;
+
+	@Autowired
+	private VisitorMatcher visitorMatcher;
+
+	@Test
+	void sameIdNumberReturnsTheRegisteredVisitor() throws Exception {
+		JsonNode first = register("Marisol Dizon", "1988-02-14", "N03-12-345678");
+		JsonNode again = register("MARISOL DIZON", "1988-02-14", "n0312 345678");
+
+		assertFalse(first.get("existingVisitor").asBoolean());
+		assertTrue(again.get("existingVisitor").asBoolean());
+		assertEquals(first.get("visitorId").asLong(), again.get("visitorId").asLong());
+	}
+
+	@Test
+	void sameNameAndBirthDateIsOnlyAPossibleDuplicate() throws Exception {
+		JsonNode first = register("Teodoro Salcedo", "1975-11-30", "P7781234A");
+		JsonNode other = register("Teodoro  Salcedo", "1975-11-30", "P9990001B");
+
+		assertFalse(other.get("existingVisitor").asBoolean());
+		assertNotEquals(first.get("visitorId").asLong(), other.get("visitorId").asLong());
+		assertEquals(first.get("visitorId").asLong(), other.at("/possibleDuplicates/0/visitorID").asLong());
+	}
+
+	@Test
+	void sameIdNumberWithOtherNameAndBirthDateIsOnlyAPossibleDuplicate() throws Exception {
+		JsonNode first = register("Rogelio Manalo", "1960-03-01", "X1234567Z");
+		JsonNode other = register("Ana Bautista", "1999-09-09", "x1234567z");
+
+		assertFalse(other.get("existingVisitor").asBoolean());
+		assertNotEquals(first.get("visitorId").asLong(), other.get("visitorId").asLong());
+		assertEquals(first.get("visitorId").asLong(), other.at("/possibleDuplicates/0/visitorID").asLong());
+	}
+
+	@Test
+	void idNumberWithoutBirthDateOnRecordNeedsTheName() throws Exception {
+		Visitor stored = new Visitor("Lourdes Ocampo", "Guest", "PASSPORT", "K5550001", null,
+				new Timestamp(System.currentTimeMillis()));
+		stored.setGender("Unspecified");
+		stored = visitorRepository.save(stored);
+		visitorMatcher.remember(stored);
+
+		JsonNode other = register("Imelda Ramos", "1980-01-01", "K5550001");
+		assertFalse(other.get("existingVisitor").asBoolean());
+		assertEquals(stored.getVisitorID().longValue(), other.at("/possibleDuplicates/0/visitorID").asLong());
+
+		JsonNode same = register("LOURDES  OCAMPO", "1980-01-01", "k555 0001");
+		assertTrue(same.get("existingVisitor").asBoolean());
+		assertEquals(stored.getVisitorID().longValue(), same.get("visitorId").asLong());
+	}
+
+	@Test
+	void visitorsRememberedDuringRebuildsAreStillFound() throws Exception {
+		Date dob = Date.valueOf("1971-06-15");
+		AtomicBoolean writing = new AtomicBoolean(true);
+		Thread rebuilder = new Thread(() -> {
+			while (writing.get()) {
+				visitorMatcher.rebuild();
+			}
+		});
+		rebuilder.start();
+		try {
+			for (int i = 0; i < 200; i++) {
+				Visitor v = new Visitor("Rebuild Visitor " + i, "Guest", "PASSPORT", "RB" + (100000 + i), dob,
+						new Timestamp(System.currentTimeMillis()));
+				v.setGender("Unspecified");
+				v = visitorRepository.save(v);
+				visitorMatcher.remember(v);
+
+				// Checked straight away: a later rebuild would hide a key the current filter lost.
+				// A missing key skips the lookup and the visitor would be registered twice
+				VisitorMatcher.Match match = visitorMatcher.match(v.getVisitorName(), v.getIdNumber(), "PASSPORT", dob);
+				assertNotNull(match.getExisting(), v.getIdNumber());
+				assertEquals(v.getVisitorID(), match.getExisting().getVisitorID());
+			}
+		} finally {
+			writing.set(false);
+			rebuilder.join();
+		}
+	}
+
+	private JsonNode register(String name, String dob, String idNumber) throws Exception {
+		String body = mockMvc.perform(multipart("/api/visitors/register")
+						.param("visitorName", name)
+						.param("dob", dob)
+						.param("idNumber", idNumber)
+						.param("idType", "PASSPORT"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+}
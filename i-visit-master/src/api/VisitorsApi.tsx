@@ -45,12 +45,24 @@ export async function archiveVisitors(ids: number[]): Promise<void> {
   }
 }
 
+export interface VisitorSummary {
+  visitorID: number;
+  visitorName: string;
+  idType: string;
+  idNumber: string;
+  visitorType?: string;
+  photoPath?: string;
+}
+
 export interface RegisterVisitorResponse {
   message: string;
   visitorId: number;
   idImagePath?: string;
   personPhotoPath?: string;
   timestamp?: string;
+  // true when the ID number matched an already registered visitor
+  existingVisitor?: boolean;
+  possibleDuplicates?: VisitorSummary[];
 }
 
 interface RegisterVisitorPayload {
@@ -788,9 +788,24 @@ export default function ScanIdPage() {
         params.set("purpose", purposeToCarry);
       }
 
-      showToast(`Visitor registered: ${visitorData.fullName}`, {
-        variant: "success",
-      });
+      if (savedVisitor.existingVisitor) {
+        showToast(`Returning visitor: ${visitorData.fullName}`, {
+          variant: "info",
+        });
+      } else {
+        showToast(`Visitor registered: ${visitorData.fullName}`, {
+          variant: "success",
+        });
+      }
+      const duplicates = savedVisitor.possibleDuplicates ?? [];
+      if (duplicates.length > 0) {
+        showToast(
+          `Possible duplicate of ${duplicates
+            .map((d) => `${d.visitorName} (#${d.visitorID})`)
+            .join(", ")}`,
+          { variant: "warning" }
+        );
+      }
 
       navigate(`/dashboard/log-visitor?${params.toString()}`);
     } catch (error: any) {
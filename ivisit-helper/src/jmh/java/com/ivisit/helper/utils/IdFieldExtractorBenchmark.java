@@ -0,0 +1,42 @@
+package com.ivisit.helper.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field parsing of OCR text (the former OcrSpaceController
+ * extractFieldsFromText, now IdFieldExtractor) over clean and noisy text
+ * for each supported ID type, with and without an ID type hint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdFieldExtractorBenchmark {
+
+    private List<String> texts;
+
+    @Setup
+    public void setUp() {
+        texts = SyntheticCards.ocrTexts();
+    }
+
+    @Benchmark
+    public void extract(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(IdFieldExtractor.extract(text));
+        }
+    }
+
+    @Benchmark
+    public void extractWithHint(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(IdFieldExtractor.extract(text, "UMID"));
+        }
+    }
+}
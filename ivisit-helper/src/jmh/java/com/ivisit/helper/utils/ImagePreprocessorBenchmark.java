@@ -0,0 +1,69 @@
+package com.ivisit.helper.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage cost of ImagePreprocessor on synthetic captures, from a
+ * low-res webcam frame up to a 12MP phone photo. Run with -prof gc (the
+ * profile default) to see bytes allocated per operation alongside time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ImagePreprocessorBenchmark {
+
+    @Param({"640x400", "1600x1000", "4000x3000"})
+    public String resolution;
+
+    private BufferedImage capture;
+    private BufferedImage gray;
+    private byte[] jpeg;
+
+    @Setup
+    public void setUp() {
+        String[] size = resolution.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        capture = SyntheticCards.capture(width, height, 1L);
+        gray = SyntheticCards.grayCapture(width, height, 1L);
+        jpeg = SyntheticCards.captureJpeg(width, height, 1L);
+    }
+
+    @Benchmark
+    public BufferedImage readForOcr() throws IOException {
+        return ImagePreprocessor.readForOcr(new ByteArrayInputStream(jpeg));
+    }
+
+    @Benchmark
+    public BufferedImage preprocess() {
+        return ImagePreprocessor.preprocess(capture);
+    }
+
+    @Benchmark
+    public BufferedImage preprocessAdaptiveLocal() {
+        return ImagePreprocessor.preprocessAdaptiveLocal(capture);
+    }
+
+    @Benchmark
+    public BufferedImage binarize() {
+        return ImagePreprocessor.binarize(gray);
+    }
+
+    @Benchmark
+    public int calculateOtsuThreshold() {
+        return ImagePreprocessor.calculateOtsuThreshold(gray);
+    }
+
+    @Benchmark
+    public BufferedImage cardAlign() {
+        return CardAligner.align(capture);
+    }
+}
@@ -2,16 +2,21 @@ package com.ivisit.helper;
 
 import com.ivisit.helper.sender.RfidSender;
 import com.ivisit.helper.service.RfidService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import javax.smartcardio.CardException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class RfidLoopRunner implements CommandLineRunner {
 
     private final RfidService rfidService;
     private final RfidSender rfidSender;
+    private final Timer tapToSendSuccess;
+    private final Timer tapToSendFailure;
 
     // tracking consecutive scanner-level failures
     private int consecutiveScannerErrors = 0;
@@ -19,9 +24,12 @@ public class RfidLoopRunner implements CommandLineRunner {
     // Flag to track if we've already notified about missing reader
     private boolean noReaderNotified = false;
 
-    public RfidLoopRunner(RfidService rfidService, RfidSender rfidSender) {
+    public RfidLoopRunner(RfidService rfidService, RfidSender rfidSender, MeterRegistry meterRegistry) {
         this.rfidService = rfidService;
         this.rfidSender = rfidSender;
+        // From the card landing on the reader to the backend's answer
+        this.tapToSendSuccess = tapToSendTimer(meterRegistry, "success");
+        this.tapToSendFailure = tapToSendTimer(meterRegistry, "failure");
     }
 
     @Override
@@ -34,11 +42,13 @@ public class RfidLoopRunner implements CommandLineRunner {
                     // Only log "Waiting for card..." when reader is available
                     System.out.println("Waiting for card...");
                 }
-                String uid = rfidService.readCardUID(10_000); // 10 seconds
+                RfidService.CardRead read = rfidService.readCard(10_000); // 10 seconds
 
-                if (uid != null) {
-                    System.out.println("Card detected. UID = " + uid);
-                    rfidSender.sendScan(uid);
+                if (read != null) {
+                    System.out.println("Card detected. UID = " + read.uid);
+                    boolean sent = rfidSender.sendScan(read.uid);
+                    (sent ? tapToSendSuccess : tapToSendFailure)
+                            .record(System.nanoTime() - read.presentAtNanos, TimeUnit.NANOSECONDS);
 
                     // SUCCESS -> reset error counter and notification flag
                     consecutiveScannerErrors = 0;
@@ -79,6 +89,12 @@ public class RfidLoopRunner implements CommandLineRunner {
         }
     }
 
+    private static Timer tapToSendTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("helper.rfid.tap.to.send")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
     /**
      * Decide if this looks like a scanner / driver level problem
      * (PC/SC, terminals missing, etc.), not just normal “no card” behavior.
@@ -0,0 +1,117 @@
+package com.ivisit.helper.config;
+
+import com.ivisit.helper.sender.RfidSender;
+import com.ivisit.helper.service.OcrSpaceService;
+import com.ivisit.helper.service.RemoteCallGuard;
+import com.ivisit.helper.service.RfidService;
+import com.ivisit.helper.service.TesseractPool;
+import com.ivisit.helper.service.VisionOcrService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Health components behind /actuator/health and /api/scanner-status.
+ *
+ * Only a missing Tesseract install makes the helper DOWN. A missing reader,
+ * an unreachable backend or an open remote OCR circuit leave the rest of the
+ * station usable, so they report DEGRADED (ordered between DOWN and UP in
+ * application.properties).
+ */
+@Configuration
+public class HealthConfig {
+
+    public static final Status DEGRADED = new Status("DEGRADED");
+
+    @Value("${rfid.health.backend-failure-threshold:3}")
+    private int backendFailureThreshold;
+
+    /**
+     * Reader state from the RFID loop's last terminal listing; never touches PC/SC itself.
+     */
+    @Bean
+    public HealthIndicator rfidReaderHealthIndicator(RfidService rfidService) {
+        return () -> {
+            if (rfidService.getReaderCheckedAt() == 0) {
+                return Health.unknown().withDetail("message", "RFID reader not checked yet").build();
+            }
+            Health.Builder builder = rfidService.isReaderConnected()
+                    ? Health.up().withDetail("readerName", rfidService.getReaderName())
+                    : Health.status(DEGRADED).withDetail("message", rfidService.getReaderError());
+            return builder
+                    .withDetail("checkedAt", Instant.ofEpochMilli(rfidService.getReaderCheckedAt()).toString())
+                    .withDetail("reconnects", rfidService.getReconnects())
+                    .build();
+        };
+    }
+
+    @Bean
+    public HealthIndicator backendLinkHealthIndicator(RfidSender rfidSender) {
+        return () -> {
+            int failures = rfidSender.getConsecutiveFailures();
+            Health.Builder builder = failures >= backendFailureThreshold
+                    ? Health.status(DEGRADED).withDetail("lastError", String.valueOf(rfidSender.getLastError()))
+                    : Health.up();
+            builder.withDetail("backendUrl", rfidSender.getBackendUrl())
+                    .withDetail("consecutiveFailures", failures);
+            if (rfidSender.getLastSuccessAt() > 0) {
+                builder.withDetail("lastSuccessAt", Instant.ofEpochMilli(rfidSender.getLastSuccessAt()).toString());
+            }
+            if (rfidSender.getLastFailureAt() > 0) {
+                builder.withDetail("lastFailureAt", Instant.ofEpochMilli(rfidSender.getLastFailureAt()).toString());
+            }
+            return builder.build();
+        };
+    }
+
+    @Bean
+    public HealthIndicator tesseractHealthIndicator(TesseractPool tesseractPool) {
+        return () -> {
+            Health.Builder builder = tesseractPool.isDataAvailable()
+                    ? Health.up()
+                    : Health.down().withDetail("message", "eng.traineddata not found");
+            return builder
+                    .withDetail("dataPath", tesseractPool.getDataPath())
+                    .withDetail("maxPerProfile", tesseractPool.getMaxPerProfile())
+                    .withDetail("inUse", tesseractPool.inUseByProfile())
+                    .build();
+        };
+    }
+
+    @Bean
+    public HealthIndicator remoteOcrHealthIndicator(VisionOcrService visionOcrService,
+            OcrSpaceService ocrSpaceService) {
+        return () -> {
+            Map<String, Object> providers = new LinkedHashMap<>();
+            boolean degraded = false;
+            degraded |= describe(providers, "vision", visionOcrService.isConfigured(),
+                    visionOcrService.getCallGuard());
+            degraded |= describe(providers, "ocrspace", ocrSpaceService.isConfigured(),
+                    ocrSpaceService.getCallGuard());
+            return (degraded ? Health.status(DEGRADED) : Health.up())
+                    .withDetails(providers)
+                    .build();
+        };
+    }
+
+    /**
+     * Adds one provider's state; returns true when a configured provider's circuit is not closed.
+     */
+    private static boolean describe(Map<String, Object> providers, String name, boolean configured,
+            RemoteCallGuard guard) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("configured", configured);
+        details.put("circuit", guard.getState());
+        details.put("consecutiveFailures", guard.getConsecutiveFailures());
+        details.put("availableSlots", guard.getAvailableSlots());
+        providers.put(name, details);
+        return configured && !"CLOSED".equals(guard.getState());
+    }
+}
@@ -0,0 +1,99 @@
+package com.ivisit.helper.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivisit.helper.service.OcrAdmissionControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gates POST /api/ocr/** through OcrAdmissionControl before the controller
+ * runs. Uploads are resolved lazily, so a rejected request never has its
+ * multipart body parsed; it gets 429 with Retry-After straight away.
+ * Requests that map to no controller method are left to the 404 handler.
+ */
+public class OcrAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = OcrAdmissionInterceptor.class.getName() + ".permit";
+    private static final String OCR_PATH = "/api/ocr";
+
+    private final OcrAdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+
+    public OcrAdmissionInterceptor(OcrAdmissionControl admissionControl, ObjectMapper objectMapper) {
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!"POST".equals(request.getMethod()) || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        String endpoint = endpointName(request);
+        OcrAdmissionControl.Permit permit;
+        try {
+            permit = admissionControl.tryAdmit(endpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "OCR request interrupted while queued", 1);
+            return false;
+        }
+
+        if (permit == null) {
+            int retryAfter = admissionControl.retryAfterSeconds(endpoint);
+            System.out.println("[Admission] Rejected " + endpoint + " request, retry after " + retryAfter + "s");
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "OCR is busy, try again shortly", retryAfter);
+            return false;
+        }
+
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof OcrAdmissionControl.Permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            ((OcrAdmissionControl.Permit) permit).release();
+        }
+    }
+
+    /**
+     * "ocr" for POST /api/ocr itself, otherwise the first path segment after
+     * it. Names outside OcrAdmissionControl.ENDPOINTS share one gate there.
+     */
+    private static String endpointName(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.length() <= OCR_PATH.length() + 1) {
+            return "ocr";
+        }
+        String rest = path.substring(OCR_PATH.length() + 1);
+        int slash = rest.indexOf('/');
+        return slash >= 0 ? rest.substring(0, slash) : rest;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, int retryAfter)
+            throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", message);
+        body.put("retryAfterSeconds", retryAfter);
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ivisit.helper.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executors for OCR work that fans out within one request:
+ * ocrExecutor for CPU-heavy local work (multipass variants, ROI fields),
+ * remoteOcrExecutor for blocking calls to remote OCR providers.
+ */
+@Configuration
+public class OcrExecutorConfig {
+
+    @Value("${ocr.executor.threads:0}")
+    private int threads;
+
+    @Value("${ocr.executor.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${ocr.remote.threads:8}")
+    private int remoteThreads;
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ocrExecutor() {
+        // 0 (or less) means one thread per core
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors());
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "ocr-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+
+        // When saturated the request thread runs the task itself instead of failing
+        return new ThreadPoolExecutor(
+                size, size,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                factory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService remoteOcrExecutor() {
+        int size = Math.max(1, remoteThreads);
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "ocr-remote-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+
+        // Remote calls are I/O-bound; when saturated, reject so the caller
+        // skips the provider instead of blocking a request thread on it
+        return new ThreadPoolExecutor(
+                size, size,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(size),
+                factory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
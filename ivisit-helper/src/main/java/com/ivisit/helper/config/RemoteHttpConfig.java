@@ -0,0 +1,101 @@
+package com.ivisit.helper.config;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared pooled HTTP client for the remote OCR providers.
+ *
+ * Connections are kept alive and reused across requests. Each provider
+ * builds its own RestTemplate over this client with its own timeouts
+ * (see {@link #restTemplate}), so a slow provider cannot hold a request
+ * thread indefinitely.
+ */
+@Configuration
+public class RemoteHttpConfig {
+
+    @Value("${ocr.http.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${ocr.http.max-connections-per-route:10}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${ocr.http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient remoteOcrHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // Re-check connections that sat idle, the provider may have closed them
+        connectionManager.setValidateAfterInactivity(2000);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    // Honour the server's Keep-Alive timeout, otherwise use ours
+                    HeaderElementIterator it = new BasicHeaderElementIterator(
+                            response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+                    while (it.hasNext()) {
+                        HeaderElement element = it.nextElement();
+                        if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                            try {
+                                return Long.parseLong(element.getValue()) * 1000L;
+                            } catch (NumberFormatException ignored) {
+                                // fall through to the default
+                            }
+                        }
+                    }
+                    return keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * RestTemplate over the shared client with per-provider timeouts.
+     * connectionRequestTimeoutMs bounds the wait for a free pooled connection.
+     */
+    public static RestTemplate restTemplate(CloseableHttpClient httpClient, int connectTimeoutMs,
+            int readTimeoutMs, int connectionRequestTimeoutMs) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setConnectTimeout(connectTimeoutMs);
+        factory.setReadTimeout(readTimeoutMs);
+        factory.setConnectionRequestTimeout(connectionRequestTimeoutMs);
+        // Bodies are written straight to the connection instead of a byte[] first
+        factory.setBufferRequestBody(false);
+        return new RestTemplate(factory);
+    }
+
+    /**
+     * Request callback that sets the headers and lets body write the request
+     * body directly to the connection.
+     */
+    public static RequestCallback streamingRequest(HttpHeaders headers, StreamingHttpOutputMessage.Body body) {
+        return request -> {
+            request.getHeaders().putAll(headers);
+            if (request instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) request).setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+        };
+    }
+}
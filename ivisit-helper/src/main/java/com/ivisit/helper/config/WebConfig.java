@@ -1,9 +1,12 @@
 package com.ivisit.helper.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivisit.helper.service.OcrAdmissionControl;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -14,7 +17,7 @@ public class WebConfig {
 
 
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
+    public WebMvcConfigurer corsConfigurer(OcrAdmissionControl ocrAdmissionControl, ObjectMapper objectMapper) {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
@@ -32,6 +35,13 @@ public class WebConfig {
                         .allowedHeaders("*")
                         .allowCredentials(true);
             }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Bounded concurrency and queueing for the OCR endpoints
+                registry.addInterceptor(new OcrAdmissionInterceptor(ocrAdmissionControl, objectMapper))
+                        .addPathPatterns("/api/ocr", "/api/ocr/**");
+            }
         };
     }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package com.ivisit.helper.controller;
 
 import com.ivisit.helper.service.NameFinderService;
+import com.ivisit.helper.service.OcrResultCache;
+import com.ivisit.helper.service.TesseractPool;
 import com.ivisit.helper.utils.ImagePreprocessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import net.sourceforge.tess4j.ITessAPI;
 import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import net.sourceforge.tess4j.Word;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +21,14 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 // for debug
 import java.io.ByteArrayOutputStream;
 
@@ -26,23 +39,29 @@ public class OcrController {
 
 
     private final NameFinderService nameFinderService;
-    private final String dataPath;
-
-
-    public OcrController(@Value("${tesseract.datapath}") String dataPath, NameFinderService nameFinderService) {
+    private final TesseractPool tesseractPool;
+    private final OcrResultCache ocrResultCache;
+    private final ExecutorService ocrExecutor;
+    private final MeterRegistry meterRegistry;
+
+    // Multipass stops as soon as one pass reaches this mean confidence (0-100)
+    private final int acceptConfidence;
+
+
+    public OcrController(
+            NameFinderService nameFinderService,
+            TesseractPool tesseractPool,
+            OcrResultCache ocrResultCache,
+            @Qualifier("ocrExecutor") ExecutorService ocrExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${ocr.multipass.accept-confidence:85}") int acceptConfidence
+    ) {
         this.nameFinderService = nameFinderService;
-        this.dataPath = dataPath;
-    }
-
-    private Tesseract newTesseract() {
-        Tesseract t = new Tesseract();
-        t.setDatapath(dataPath);
-        t.setLanguage("eng");
-        t.setOcrEngineMode(ITessAPI.TessOcrEngineMode.OEM_LSTM_ONLY);
-        // Set DPI for better OCR (prevents "Invalid resolution 0 dpi" warning)
-        t.setTessVariable("user_defined_dpi", "300");
-        t.setTessVariable("tessedit_char_whitelist", "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789- /,.");
-        return t;
+        this.tesseractPool = tesseractPool;
+        this.ocrResultCache = ocrResultCache;
+        this.ocrExecutor = ocrExecutor;
+        this.meterRegistry = meterRegistry;
+        this.acceptConfidence = acceptConfidence;
     }
 
     @PostMapping
@@ -55,9 +74,15 @@ public class OcrController {
             return error(HttpStatus.BAD_REQUEST, "Empty file");
         }
 
+        String cacheKey = ocrResultCache.key(file, "ocr", mode, profile);
+        Map<String, Object> cached = ocrResultCache.get(cacheKey);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+
         BufferedImage original;
         try {
-            original = ImageIO.read(file.getInputStream());
+            original = ImagePreprocessor.readForOcr(file.getInputStream());
         } catch (IOException e) {
             return error(HttpStatus.BAD_REQUEST, "Unable to read image: " + e.getMessage());
         }
@@ -68,58 +93,41 @@ public class OcrController {
 
         BufferedImage processed = ImagePreprocessor.preprocess(original);
 
-        // Choose Page Segmentation Mode based on mode hint
-        int psm = getPsm(mode);
-
-        Tesseract t = newTesseract();
-
-        t.setPageSegMode(psm);
-
-        // Reset to a wide default whitelist every request
-        t.setTessVariable("preserve_interword_spaces", "1");
-        t.setTessVariable(
-                "tessedit_char_whitelist",
-                "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789- /"
-        );
-        // === Profile-specific tuning (Names / Numeric / DOB) ===
-        if (profile != null) {
-            switch (profile.toLowerCase()) {
-                case "name":
-                    // Name lines are always single-line uppercase
-                    t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
-                    t.setTessVariable("tessedit_char_whitelist", "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz -");
-                    break;
-
-                case "numeric":
-                    // Numeric ID numbers, allow hyphens
-                    t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
-                    t.setTessVariable("tessedit_char_whitelist", "0123456789-");
-                    break;
-
-                case "dob":
-                    // Dates with digits and separators
-                    t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
-                    t.setTessVariable("tessedit_char_whitelist", "0123456789/-");
-                    break;
-
-                default:
-                    // fall back to your global whitelist
-                    t.setTessVariable(
-                            "tessedit_char_whitelist",
-                            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789- /"
-                    );
-                    break;
-            }
-        }
+        // Page segmentation mode and whitelist come from the engine profile
+        TesseractPool.Profile ocrProfile = TesseractPool.Profile.fromRequest(mode, profile);
 
         String result;
         java.util.List<String> personNames;
+        int meanConfidence = 0; //-1;
+        Tesseract t;
+        try {
+            t = tesseractPool.borrow(ocrProfile);
+        } catch (TesseractException e) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "OCR busy: " + e.getMessage());
+        }
         try {
             result = t.doOCR(processed);
-            personNames = nameFinderService.findPersonNames(result);
+
+            try {
+                java.util.List<Word> words =
+                        t.getWords(processed, ITessAPI.TessPageIteratorLevel.RIL_WORD);
+
+                if (!words.isEmpty()) {
+                    int sum = 0;
+                    for (Word w : words) {
+                        sum += w.getConfidence(); // 0–100 per word
+                    }
+                    meanConfidence = sum / words.size();
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to compute mean confidence: " + e.getMessage());
+            }
         } catch (TesseractException e) {
             return error(HttpStatus.INTERNAL_SERVER_ERROR, "OCR failed: " + e.getMessage());
+        } finally {
+            tesseractPool.release(t);
         }
+        personNames = nameFinderService.findPersonNames(result);
 
         //debug start
         String processedBase64 = null;
@@ -132,22 +140,6 @@ public class OcrController {
         }
         //debug end
 
-        int meanConfidence = 0; //-1;
-        try {
-            java.util.List<Word> words =
-                    t.getWords(processed, ITessAPI.TessPageIteratorLevel.RIL_WORD);
-
-            if (!words.isEmpty()) {
-                int sum = 0;
-                for (Word w : words) {
-                    sum += w.getConfidence(); // 0–100 per word
-                }
-                meanConfidence = sum / words.size();
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to compute mean confidence: " + e.getMessage());
-        }
-
         Map<String, Object> response = new HashMap<>();
         response.put("extractedText", result);
         response.put("personNames", personNames);
@@ -155,28 +147,14 @@ public class OcrController {
             response.put("processedImageBase64", processedBase64);
         }
         response.put("meanConfidence", meanConfidence);
+        ocrResultCache.put(cacheKey, response);
         return ResponseEntity.ok(response);
     }
 
-    private static int getPsm(String mode) {
-        int psm;
-
-        if ("line".equalsIgnoreCase(mode)) {
-            // Single line – good for ID numbers / DOB fields
-            psm = ITessAPI.TessPageSegMode.PSM_SINGLE_LINE;
-        } else if ("block".equalsIgnoreCase(mode)) {
-            // Single block of text – good for name blocks / full card
-            psm = ITessAPI.TessPageSegMode.PSM_SINGLE_BLOCK;
-        } else {
-            // Default: automatic – or pick SINGLE_BLOCK as overall default
-            psm = ITessAPI.TessPageSegMode.PSM_SINGLE_BLOCK;
-        }
-        return psm;
-    }
-
     /**
      * Multi-pass OCR endpoint (Sprint 06)
-     * Tries multiple preprocessing variants and returns the best result
+     * Tries multiple preprocessing variants in parallel and returns the best result,
+     * or the first one whose confidence reaches ocr.multipass.accept-confidence
      */
     @PostMapping("/multipass")
     public ResponseEntity<Map<String, Object>> extractTextMultipass(@RequestParam("file") MultipartFile file) {
@@ -184,9 +162,15 @@ public class OcrController {
             return error(HttpStatus.BAD_REQUEST, "Empty file");
         }
 
+        String cacheKey = ocrResultCache.key(file, "multipass");
+        Map<String, Object> cached = ocrResultCache.get(cacheKey);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+
         BufferedImage original;
         try {
-            original = ImageIO.read(file.getInputStream());
+            original = ImagePreprocessor.readForOcr(file.getInputStream());
         } catch (IOException e) {
             return error(HttpStatus.BAD_REQUEST, "Unable to read image: " + e.getMessage());
         }
@@ -195,39 +179,140 @@ public class OcrController {
             return error(HttpStatus.BAD_REQUEST, "Unsupported or corrupt image");
         }
 
+        // Upscale, grayscale and sharpen once; every variant starts from this
+        ImagePreprocessor.MultipassInput base = ImagePreprocessor.prepareMultipass(original);
+
+        Map<String, Function<ImagePreprocessor.MultipassInput, BufferedImage>> variants = new LinkedHashMap<>();
+        variants.put("standard", ImagePreprocessor::preprocessStandard);
+        variants.put("highContrast", ImagePreprocessor::preprocessHighContrast);
+        variants.put("inverted", ImagePreprocessor::preprocessInverted);
+        variants.put("binarized", ImagePreprocessor::preprocessBinarized);
+        variants.put("adaptiveLocal", ImagePreprocessor::preprocessAdaptiveLocal);
+
+        // Set once a pass is good enough; passes not yet started skip their work
+        AtomicBoolean accepted = new AtomicBoolean(false);
+        CompletionService<OcrResult> completion = new ExecutorCompletionService<>(ocrExecutor);
+        Map<Future<OcrResult>, String> pending = new HashMap<>();
+
+        for (Map.Entry<String, Function<ImagePreprocessor.MultipassInput, BufferedImage>> variant : variants.entrySet()) {
+            String method = variant.getKey();
+            Future<OcrResult> future = completion.submit(() -> {
+                if (accepted.get()) {
+                    return null;
+                }
+                long started = System.nanoTime();
+                BufferedImage processed = variant.getValue().apply(base);
+                if (accepted.get() || Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                OcrResult result = runOcr(processed, method);
+                variantTimer(method, result.confidence >= 0 ? "ok" : "failed")
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return result;
+            });
+            pending.put(future, method);
+        }
+
         List<OcrResult> results = new ArrayList<>();
+        OcrResult early = null;
+        try {
+            while (!pending.isEmpty()) {
+                Future<OcrResult> done = completion.take();
+                String method = pending.remove(done);
+
+                OcrResult result;
+                try {
+                    result = done.get();
+                } catch (ExecutionException e) {
+                    System.err.println("Multipass variant " + method + " failed: " + e.getCause());
+                    result = new OcrResult("", method, 0, -1);
+                }
+                if (result == null) {
+                    continue;
+                }
+                results.add(result);
+
+                if (result.score > 0 && result.confidence >= acceptConfidence) {
+                    early = result;
+                    accepted.set(true);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<OcrResult> future : pending.keySet()) {
+                future.cancel(true);
+            }
+        }
 
-        results.add(runOcr(ImagePreprocessor.preprocessStandard(original), "standard"));
-        results.add(runOcr(ImagePreprocessor.preprocessHighContrast(original), "highContrast"));
-        results.add(runOcr(ImagePreprocessor.preprocessInverted(original), "inverted"));
-        results.add(runOcr(ImagePreprocessor.preprocessBinarized(original), "binarized"));
-        results.add(runOcr(ImagePreprocessor.preprocessAdaptiveLocal(original), "adaptiveLocal"));
+        if (results.isEmpty()) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "OCR failed: no pass completed");
+        }
 
-        OcrResult best = selectBest(results);
+        OcrResult best = early != null ? early : selectBest(results);
+        meterRegistry.counter("helper.ocr.multipass.selected",
+                "variant", best.method, "early", String.valueOf(early != null)).increment();
 
         Map<String, Object> response = new HashMap<>();
         response.put("extractedText", best.text);
         response.put("method", best.method);
         response.put("score", best.score);
+        response.put("confidence", best.confidence);
+        response.put("earlyAccepted", early != null);
 
-        System.out.println("Helper OCR (multipass): tried " + results.size() + " methods");
-        System.out.println("  - Best method: " + best.method + ", score: " + best.score);
+        System.out.println("Helper OCR (multipass): tried " + results.size() + " methods"
+                + (early != null ? " (accepted early)" : ""));
+        System.out.println("  - Best method: " + best.method + ", score: " + best.score
+                + ", confidence: " + best.confidence);
         System.out.println("  - Text preview: "
                 + (best.text.length() > 100 ? best.text.substring(0, 100) + "..." : best.text).replace("\n", " "));
+        ocrResultCache.put(cacheKey, response);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Person names for several OCR text blocks in one call.
+     * Body: { "texts": ["...", "..."] }; "personNames" has one list per text.
+     */
+    @PostMapping("/names")
+    public ResponseEntity<Map<String, Object>> findNames(@RequestBody Map<String, List<String>> body) {
+        List<String> texts = body != null ? body.get("texts") : null;
+        if (texts == null) {
+            return error(HttpStatus.BAD_REQUEST, "Missing texts");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("personNames", nameFinderService.findPersonNames(texts));
         return ResponseEntity.ok(response);
     }
 
     private OcrResult runOcr(BufferedImage image, String method) {
+        Tesseract t = null;
         try {
-            Tesseract t = newTesseract();
+            t = tesseractPool.borrow(TesseractPool.Profile.MULTIPASS);
             String text = t.doOCR(image);
             int score = scoreResult(text);
-            return new OcrResult(text, method, score);
+            return new OcrResult(text, method, score, TesseractPool.lastMeanConfidence(t));
         } catch (Exception e) {
-            return new OcrResult("", method, 0);
+            return new OcrResult("", method, 0, -1);
+        } finally {
+            if (t != null) {
+                tesseractPool.release(t);
+            }
         }
     }
 
+    /**
+     * Preprocessing plus OCR time of one multipass variant.
+     */
+    private Timer variantTimer(String method, String outcome) {
+        return Timer.builder("helper.ocr.multipass.variant")
+                .tag("variant", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     private int scoreResult(String text) {
         if (text == null || text.isEmpty())
             return 0;
@@ -256,11 +341,13 @@ public class OcrController {
         final String text;
         final String method;
         final int score;
+        final int confidence;
 
-        OcrResult(String text, String method, int score) {
+        OcrResult(String text, String method, int score, int confidence) {
             this.text = text;
             this.method = method;
             this.score = score;
+            this.confidence = confidence;
         }
     }
 }
@@ -0,0 +1,42 @@
+package com.ivisit.helper.controller;
+
+import com.ivisit.helper.service.OcrAdmissionControl;
+import com.ivisit.helper.service.OcrResultCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load on the OCR endpoints: per-endpoint admission counters and queue
+ * times, plus result cache occupancy.
+ */
+@RestController
+@RequestMapping("/api/ocr")
+public class OcrStatsController {
+
+    private final OcrAdmissionControl ocrAdmissionControl;
+    private final OcrResultCache ocrResultCache;
+
+    public OcrStatsController(OcrAdmissionControl ocrAdmissionControl, OcrResultCache ocrResultCache) {
+        this.ocrAdmissionControl = ocrAdmissionControl;
+        this.ocrResultCache = ocrResultCache;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> cache = new HashMap<>();
+        cache.put("entries", ocrResultCache.size());
+        cache.put("maxEntries", ocrResultCache.getMaxEntries());
+        cache.put("bytes", ocrResultCache.sizeBytes());
+        cache.put("maxBytes", ocrResultCache.getMaxBytes());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("admission", ocrAdmissionControl.snapshot());
+        response.put("cache", cache);
+        return ResponseEntity.ok(response);
+    }
+}
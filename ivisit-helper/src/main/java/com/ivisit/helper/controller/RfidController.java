@@ -1,6 +1,8 @@
 package com.ivisit.helper.controller;
 
 import com.ivisit.helper.service.RfidService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.web.bind.annotation.*;
 import javax.smartcardio.CardTerminal;
 import java.util.HashMap;
@@ -14,9 +16,11 @@ import java.util.stream.Collectors;
 public class RfidController {
 
     private final RfidService service;
+    private final ObjectProvider<HealthEndpoint> healthEndpoint;
 
-    public RfidController(RfidService service) {
+    public RfidController(RfidService service, ObjectProvider<HealthEndpoint> healthEndpoint) {
         this.service = service;
+        this.healthEndpoint = healthEndpoint;
     }
 
     @GetMapping("/read-card-uid")
@@ -60,7 +64,7 @@ public class RfidController {
             if (terminals == null || terminals.isEmpty()) {
                 resp.put("ok", false);
                 resp.put("message", "No RFID reader detected.");
-                return resp;
+                return withHealth(resp);
             }
 
             resp.put("ok", true);
@@ -68,12 +72,24 @@ public class RfidController {
             resp.put("readerNames", terminals.stream()
                     .map(CardTerminal::getName)
                     .collect(Collectors.toList()));
-            return resp;
+            return withHealth(resp);
         } catch (Exception e) {
             resp.put("ok", false);
             resp.put("message", "RFID scanner error: " + e.getMessage());
-            return resp;
+            return withHealth(resp);
         }
     }
+
+    /**
+     * Adds the helper's consolidated health (RFID loop, backend link, OCR)
+     * so the station UI can show more than the reader.
+     */
+    private Map<String, Object> withHealth(Map<String, Object> resp) {
+        HealthEndpoint endpoint = healthEndpoint.getIfAvailable();
+        if (endpoint != null) {
+            resp.put("health", endpoint.health());
+        }
+        return resp;
+    }
 }
 
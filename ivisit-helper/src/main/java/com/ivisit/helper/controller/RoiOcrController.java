@@ -1,16 +1,15 @@
 package com.ivisit.helper.controller;
 
+import com.ivisit.helper.service.LocalOcrService;
+import com.ivisit.helper.service.OcrResultCache;
+import com.ivisit.helper.service.RoiTemplateService;
 import com.ivisit.helper.utils.ImagePreprocessor;
 import com.ivisit.helper.utils.RoiTemplate;
-import net.sourceforge.tess4j.Tesseract;
-import net.sourceforge.tess4j.TesseractException;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.*;
@@ -18,22 +17,21 @@ import java.util.*;
 /**
  * ROI-based OCR extraction controller.
  * Uses region templates to crop specific fields from ID cards before OCR.
+ * Fields are OCR'd in parallel, so latency is that of the slowest field.
  */
 @RestController
 @RequestMapping("/api/ocr")
 public class RoiOcrController {
 
-    private final Tesseract tesseract;
+    private final LocalOcrService localOcrService;
+    private final RoiTemplateService roiTemplateService;
+    private final OcrResultCache ocrResultCache;
 
-    public RoiOcrController(@Value("${tesseract.datapath}") String dataPath) {
-        this.tesseract = new Tesseract();
-        this.tesseract.setDatapath(dataPath);
-        this.tesseract.setLanguage("eng");
-        // Page segmentation mode 7: single line of text
-        this.tesseract.setPageSegMode(7);
-        this.tesseract.setTessVariable(
-                "tessedit_char_whitelist",
-                "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-/., ");
+    public RoiOcrController(LocalOcrService localOcrService, RoiTemplateService roiTemplateService,
+            OcrResultCache ocrResultCache) {
+        this.localOcrService = localOcrService;
+        this.roiTemplateService = roiTemplateService;
+        this.ocrResultCache = ocrResultCache;
     }
 
     /**
@@ -47,15 +45,21 @@ public class RoiOcrController {
             return error(HttpStatus.BAD_REQUEST, "Empty file");
         }
 
+        String cacheKey = ocrResultCache.key(file, "roi", idType);
+        Map<String, Object> cached = ocrResultCache.get(cacheKey);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+
         // Get ROI template for this ID type
-        Map<String, RoiTemplate.Region> template = RoiTemplate.getTemplate(idType);
+        Map<String, RoiTemplate.Region> template = roiTemplateService.getTemplate(idType);
         if (template == null) {
             return error(HttpStatus.BAD_REQUEST, "Unknown ID type: " + idType);
         }
 
         BufferedImage original;
         try {
-            original = ImageIO.read(file.getInputStream());
+            original = ImagePreprocessor.readForOcr(file.getInputStream());
         } catch (IOException e) {
             return error(HttpStatus.BAD_REQUEST, "Unable to read image: " + e.getMessage());
         }
@@ -64,32 +68,16 @@ public class RoiOcrController {
             return error(HttpStatus.BAD_REQUEST, "Unsupported or corrupt image");
         }
 
-        // Extract each field using its ROI
+        // Extract every field concurrently, each with the engine profile for its content
         Map<String, String> extractedFields = new HashMap<>();
-
-        for (Map.Entry<String, RoiTemplate.Region> entry : template.entrySet()) {
-            String fieldName = entry.getKey();
-            RoiTemplate.Region region = entry.getValue();
-
-            try {
-                // Crop the region
-                BufferedImage crop = ImagePreprocessor.cropRegion(
-                        original,
-                        region.xPct, region.yPct,
-                        region.widthPct, region.heightPct);
-
-                // Preprocess the crop (binarize, upscale)
-                BufferedImage processed = ImagePreprocessor.preprocessCroppedRegion(crop);
-
-                // Run OCR on the isolated region
-                String text = tesseract.doOCR(processed).trim();
-                extractedFields.put(fieldName, text);
-
-                System.out.println("ROI OCR [" + fieldName + "]: " + text);
-            } catch (TesseractException e) {
-                extractedFields.put(fieldName, "");
-                System.err.println("ROI OCR error for " + fieldName + ": " + e.getMessage());
+        try {
+            for (Map.Entry<String, LocalOcrService.TextResult> entry
+                    : localOcrService.extractRoiFields(original, template).entrySet()) {
+                extractedFields.put(entry.getKey(), entry.getValue().text);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "ROI OCR interrupted");
         }
 
         // Build response
@@ -107,6 +95,7 @@ public class RoiOcrController {
 
         System.out.println("Helper ROI OCR: processed " + idType + " with " +
                 extractedFields.size() + " fields");
+        ocrResultCache.put(cacheKey, response);
         return ResponseEntity.ok(response);
     }
 
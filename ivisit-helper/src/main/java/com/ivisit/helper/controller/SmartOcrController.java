@@ -0,0 +1,79 @@
+package com.ivisit.helper.controller;
+
+import com.ivisit.helper.service.OcrOrchestrator;
+import com.ivisit.helper.service.OcrResultCache;
+import com.ivisit.helper.utils.ImagePreprocessor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single orchestrated OCR endpoint: local Tesseract first, remote providers
+ * only when local confidence is too low, within a fixed latency budget.
+ */
+@RestController
+@RequestMapping("/api/ocr")
+public class SmartOcrController {
+
+    private final OcrOrchestrator ocrOrchestrator;
+    private final OcrResultCache ocrResultCache;
+
+    public SmartOcrController(OcrOrchestrator ocrOrchestrator, OcrResultCache ocrResultCache) {
+        this.ocrOrchestrator = ocrOrchestrator;
+        this.ocrResultCache = ocrResultCache;
+    }
+
+    /**
+     * Best fields by confidence across local and remote OCR.
+     * idType is optional; when it names a known template, local OCR uses ROI.
+     */
+    @PostMapping("/smart")
+    public ResponseEntity<Map<String, Object>> smartOcr(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "idType", required = false) String idType) {
+        if (file.isEmpty()) {
+            return error(HttpStatus.BAD_REQUEST, "Empty file");
+        }
+
+        String cacheKey = ocrResultCache.key(file, "smart", idType);
+        Map<String, Object> cached = ocrResultCache.get(cacheKey);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+
+        BufferedImage original;
+        try {
+            original = ImagePreprocessor.readForOcr(file.getInputStream());
+        } catch (IOException e) {
+            return error(HttpStatus.BAD_REQUEST, "Unable to read image: " + e.getMessage());
+        }
+
+        if (original == null) {
+            return error(HttpStatus.BAD_REQUEST, "Unsupported or corrupt image");
+        }
+
+        try {
+            Map<String, Object> response = ocrOrchestrator.recognize(file, original, idType);
+            // A budget-cut answer may be incomplete; let a retry try again
+            if (!Boolean.TRUE.equals(response.get("budgetExceeded"))) {
+                ocrResultCache.putIfUsable(cacheKey, response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Smart OCR interrupted");
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> err = new HashMap<>();
+        err.put("error", message);
+        return ResponseEntity.status(status).body(err);
+    }
+}
@@ -1,5 +1,7 @@
 package com.ivisit.helper.sender;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
@@ -8,6 +10,8 @@ import org.springframework.web.client.RestTemplate;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class RfidSender {
@@ -15,18 +19,29 @@ public class RfidSender {
     private final RestTemplate restTemplate;
     private final String backendUrl;
     private final String stationId;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long lastSuccessAt;
+    private volatile long lastFailureAt;
+    private volatile String lastError;
 
     public RfidSender(
             RestTemplate restTemplate,
+            MeterRegistry meterRegistry,
             @Value("${backend.url}") String backendUrl,
             @Value("${station.id}") String stationId
     ) {
         this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
         this.backendUrl = backendUrl;
         this.stationId = stationId;
     }
 
-    public void sendScan(String uid) {
+    /**
+     * Post a scan to the backend. Returns true once the backend answered.
+     */
+    public boolean sendScan(String uid) {
         String url = backendUrl + "/api/helper/rfid-scan";
 
         Map<String, Object> body = new HashMap<>();
@@ -39,11 +54,53 @@ public class RfidSender {
 
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
 
+        long start = System.nanoTime();
         try {
             ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+            sendTimer("success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             System.out.println("Sent RFID scan to backend: HTTP " + response.getStatusCodeValue());
+            consecutiveFailures.set(0);
+            lastSuccessAt = System.currentTimeMillis();
+            return true;
         } catch (Exception e) {
-            System.err.println("Failed to send RFID scan: " + e.getMessage());
+            sendTimer("failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return fail(e);
         }
     }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    public long getLastFailureAt() {
+        return lastFailureAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public String getBackendUrl() {
+        return backendUrl;
+    }
+
+    private boolean fail(Exception e) {
+        System.err.println("Failed to send RFID scan: " + e.getMessage());
+        meterRegistry.counter("helper.rfid.send.failures").increment();
+        consecutiveFailures.incrementAndGet();
+        lastFailureAt = System.currentTimeMillis();
+        lastError = e.getMessage();
+        return false;
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("helper.rfid.send")
+                .description("Backend rfid-scan call")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,196 @@
+package com.ivisit.helper.service;
+
+import com.ivisit.helper.utils.CardAligner;
+import com.ivisit.helper.utils.ImagePreprocessor;
+import com.ivisit.helper.utils.RoiTemplate;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Local Tesseract OCR used by the ROI endpoint and the smart orchestrator.
+ * Every result carries the engine's mean confidence (0-100, -1 if unknown).
+ */
+@Service
+public class LocalOcrService {
+
+    private final TesseractPool tesseractPool;
+    private final ExecutorService ocrExecutor;
+    private final boolean alignCard;
+    private final long roiTimeoutMs;
+
+    public LocalOcrService(TesseractPool tesseractPool,
+            @Qualifier("ocrExecutor") ExecutorService ocrExecutor,
+            @Value("${ocr.roi.align:true}") boolean alignCard,
+            @Value("${ocr.roi.timeout-ms:20000}") long roiTimeoutMs) {
+        this.tesseractPool = tesseractPool;
+        this.ocrExecutor = ocrExecutor;
+        this.alignCard = alignCard;
+        this.roiTimeoutMs = roiTimeoutMs;
+    }
+
+    public static class TextResult {
+        public final String text;
+        public final int confidence;
+
+        TextResult(String text, int confidence) {
+            this.text = text;
+            this.confidence = confidence;
+        }
+    }
+
+    /**
+     * OCR every template region concurrently, each with the engine profile
+     * for its content. Fields that fail come back as empty text with -1
+     * confidence. Result order follows the template.
+     *
+     * Unless ocr.roi.align is off, the card is located and deskewed first so
+     * the template percentages are relative to the card, not the frame.
+     *
+     * Waits at most ocr.roi.timeout-ms for all fields together; fields still
+     * running then are cancelled and come back empty.
+     */
+    public Map<String, TextResult> extractRoiFields(BufferedImage image,
+            Map<String, RoiTemplate.Region> template) throws InterruptedException {
+        return extractRoiFields(image, template, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(roiTimeoutMs));
+    }
+
+    /**
+     * Same, but bounded by a caller's deadline (System.nanoTime based), which
+     * also caps how long each field waits for a pooled engine.
+     */
+    public Map<String, TextResult> extractRoiFields(BufferedImage image,
+            Map<String, RoiTemplate.Region> template, long deadline) throws InterruptedException {
+        BufferedImage original = alignCard ? CardAligner.align(image) : image;
+
+        Map<String, Future<TextResult>> pending = new LinkedHashMap<>();
+        Map<String, TextResult> fields = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, RoiTemplate.Region> entry : template.entrySet()) {
+                String fieldName = entry.getKey();
+                RoiTemplate.Region region = entry.getValue();
+                pending.put(fieldName, ocrExecutor.submit(() -> extractField(original, fieldName, region, deadline)));
+            }
+
+            for (Map.Entry<String, Future<TextResult>> entry : pending.entrySet()) {
+                String fieldName = entry.getKey();
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    fields.put(fieldName, entry.getValue().get(Math.max(0, remaining), TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    fields.put(fieldName, new TextResult("", -1));
+                    System.err.println("ROI OCR error for " + fieldName + ": " + e.getCause());
+                } catch (TimeoutException e) {
+                    fields.put(fieldName, new TextResult("", -1));
+                    System.err.println("ROI OCR timed out for " + fieldName);
+                }
+            }
+        } finally {
+            // Whatever ended the wait (deadline, interrupt, rejected submit), nothing keeps running for it
+            for (Future<TextResult> future : pending.values()) {
+                future.cancel(true);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Standard preprocessing plus single-block OCR of the whole card, on the
+     * OCR executor, giving up at the deadline (System.nanoTime based). A
+     * recognition still running then is cancelled; its engine goes back to
+     * the pool when Tesseract returns.
+     */
+    public TextResult recognizeFullCard(BufferedImage original, long deadline)
+            throws TesseractException, InterruptedException {
+        Future<TextResult> future = ocrExecutor.submit(() -> {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            return recognizeCard(original, remainingMs);
+        });
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new TesseractException("Local OCR did not finish within the time budget");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TesseractException) {
+                throw (TesseractException) e.getCause();
+            }
+            throw new TesseractException(String.valueOf(e.getCause()));
+        } finally {
+            future.cancel(true);
+        }
+    }
+
+    private TextResult recognizeCard(BufferedImage original, long borrowTimeoutMs) throws TesseractException {
+        BufferedImage processed = ImagePreprocessor.preprocess(original);
+
+        Tesseract t = tesseractPool.borrow(TesseractPool.Profile.BLOCK, borrowTimeoutMs);
+        try {
+            String text = t.doOCR(processed);
+            return new TextResult(text, TesseractPool.lastMeanConfidence(t));
+        } finally {
+            tesseractPool.release(t);
+        }
+    }
+
+    /**
+     * Crop, preprocess and OCR one template region. Runs on the OCR executor.
+     */
+    private TextResult extractField(BufferedImage original, String fieldName, RoiTemplate.Region region,
+            long deadline) {
+        // Crop the region
+        BufferedImage crop = ImagePreprocessor.cropRegion(
+                original,
+                region.xPct, region.yPct,
+                region.widthPct, region.heightPct);
+
+        // Preprocess the crop (binarize, upscale)
+        BufferedImage processed = ImagePreprocessor.preprocessCroppedRegion(crop);
+
+        Tesseract tesseract;
+        try {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            tesseract = tesseractPool.borrow(profileFor(fieldName), remainingMs);
+        } catch (TesseractException e) {
+            System.err.println("ROI OCR error for " + fieldName + ": " + e.getMessage());
+            return new TextResult("", -1);
+        }
+
+        try {
+            // Run OCR on the isolated region
+            String text = tesseract.doOCR(processed).trim();
+            System.out.println("ROI OCR [" + fieldName + "]: " + text);
+            return new TextResult(text, TesseractPool.lastMeanConfidence(tesseract));
+        } catch (TesseractException e) {
+            System.err.println("ROI OCR error for " + fieldName + ": " + e.getMessage());
+            return new TextResult("", -1);
+        } finally {
+            tesseractPool.release(tesseract);
+        }
+    }
+
+    private static TesseractPool.Profile profileFor(String fieldName) {
+        switch (fieldName) {
+            case "name":
+                return TesseractPool.Profile.ROI_NAME;
+            case "idNumber":
+                return TesseractPool.Profile.ROI_ID;
+            case "dob":
+                return TesseractPool.Profile.ROI_DATE;
+            case "address":
+                return TesseractPool.Profile.ROI_BLOCK;
+            default:
+                return TesseractPool.Profile.ROI;
+        }
+    }
+}
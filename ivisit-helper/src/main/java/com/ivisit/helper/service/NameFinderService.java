@@ -11,14 +11,26 @@ import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Person-name detection over OCR text with the OpenNLP person model.
+ *
+ * The model is loaded once and shared. NameFinderME is not thread-safe, so
+ * each thread keeps its own finder over that model instead of building a
+ * new one per call; adaptive data is cleared after every document so one
+ * request never influences the next.
+ */
 @Service
 public class NameFinderService {
 
     private TokenNameFinderModel personModel;
     private final SimpleTokenizer tokenizer = SimpleTokenizer.INSTANCE;
 
+    private final ThreadLocal<NameFinderME> finders =
+            ThreadLocal.withInitial(() -> new NameFinderME(personModel));
+
     @PostConstruct
     public void init() throws IOException {
         ClassPathResource resource =
@@ -29,25 +41,58 @@ public class NameFinderService {
     }
 
     public List<String> findPersonNames(String text) {
+        if (personModel == null) {
+            return new ArrayList<>();
+        }
+        return find(finders.get(), text);
+    }
+
+    /**
+     * Person names for several OCR text blocks in one call, one list per
+     * block in the same order. All blocks share this thread's finder.
+     */
+    public List<List<String>> findPersonNames(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<List<String>> results = new ArrayList<>(texts.size());
+        if (personModel == null) {
+            for (int i = 0; i < texts.size(); i++) {
+                results.add(new ArrayList<>());
+            }
+            return results;
+        }
+
+        NameFinderME finder = finders.get();
+        for (String text : texts) {
+            results.add(find(finder, text));
+        }
+        return results;
+    }
+
+    private List<String> find(NameFinderME finder, String text) {
         List<String> names = new ArrayList<>();
-        if (text == null || text.trim().isEmpty() || personModel == null) {
+        if (text == null || text.trim().isEmpty()) {
             return names;
         }
 
         String[] tokens = tokenizer.tokenize(text);
-        NameFinderME finder = new NameFinderME(personModel);
-        Span[] spans = finder.find(tokens);
-
-        for (Span span : spans) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = span.getStart(); i < span.getEnd(); i++) {
-                if (i > span.getStart()) sb.append(" ");
-                sb.append(tokens[i]);
+        try {
+            Span[] spans = finder.find(tokens);
+
+            for (Span span : spans) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = span.getStart(); i < span.getEnd(); i++) {
+                    if (i > span.getStart()) sb.append(" ");
+                    sb.append(tokens[i]);
+                }
+                names.add(sb.toString());
             }
-            names.add(sb.toString());
+        } finally {
+            // Each block is an independent document
+            finder.clearAdaptiveData();
         }
-
-        finder.clearAdaptiveData();
         return names;
     }
 }
@@ -0,0 +1,246 @@
+package com.ivisit.helper.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the OCR endpoints.
+ *
+ * Each endpoint has a concurrency limit (ocr.admission.limit.&lt;endpoint&gt;,
+ * defaults sized to the CPU) and a short bounded wait queue in front of it.
+ * The endpoints are a fixed list; any other name shares the "other" gate,
+ * so arbitrary request paths cannot create gates or meters.
+ * A request that finds the queue full, or waits longer than
+ * ocr.admission.max-wait-ms, is refused so the caller can answer 429 with
+ * a Retry-After estimate instead of piling more CPU work onto the station.
+ *
+ * Queue depth, in-flight requests and rejections per endpoint are published
+ * as helper.ocr.admission.* meters.
+ */
+@Service
+public class OcrAdmissionControl implements MeterBinder {
+
+    /**
+     * Held while an admitted request runs; release exactly once.
+     */
+    public static class Permit {
+        private final Gate gate;
+        private final long admittedAt;
+        private boolean released;
+
+        private Permit(Gate gate) {
+            this.gate = gate;
+            this.admittedAt = System.nanoTime();
+        }
+
+        public synchronized void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            gate.finish(System.nanoTime() - admittedAt);
+        }
+    }
+
+    /** Endpoint names under /api/ocr that get their own gate; "ocr" is /api/ocr itself */
+    public static final List<String> ENDPOINTS = Collections.unmodifiableList(
+            Arrays.asList("ocr", "multipass", "roi", "smart", "names", "vision", "ocrspace"));
+
+    // Shared gate for any endpoint name not in ENDPOINTS
+    private static final String OTHER = "other";
+
+    private final Environment environment;
+    private final int queueCapacity;
+    private final long maxWaitMs;
+    private final int cores = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private final Map<String, Gate> gates;
+
+    public OcrAdmissionControl(
+            Environment environment,
+            @Value("${ocr.admission.queue-capacity:8}") int queueCapacity,
+            @Value("${ocr.admission.max-wait-ms:10000}") long maxWaitMs
+    ) {
+        this.environment = environment;
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.maxWaitMs = maxWaitMs;
+
+        Map<String, Gate> byEndpoint = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            byEndpoint.put(endpoint, createGate(endpoint));
+        }
+        byEndpoint.put(OTHER, createGate(OTHER));
+        this.gates = Collections.unmodifiableMap(byEndpoint);
+    }
+
+    /**
+     * Admit a request to the endpoint, waiting in its queue if needed.
+     * Returns null when the request should be rejected.
+     */
+    public Permit tryAdmit(String endpoint) throws InterruptedException {
+        Gate gate = gate(endpoint);
+
+        if (gate.permits.tryAcquire()) {
+            gate.admitted(0L);
+            return new Permit(gate);
+        }
+
+        if (gate.waiting.incrementAndGet() > queueCapacity) {
+            gate.waiting.decrementAndGet();
+            gate.rejected.incrementAndGet();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = gate.permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } finally {
+            gate.waiting.decrementAndGet();
+        }
+
+        if (!acquired) {
+            gate.rejected.incrementAndGet();
+            return null;
+        }
+        gate.admitted(System.nanoTime() - start);
+        return new Permit(gate);
+    }
+
+    /**
+     * Seconds a rejected client should wait before retrying: the time for
+     * the current queue to drain at the observed average service time.
+     */
+    public int retryAfterSeconds(String endpoint) {
+        Gate gate = gate(endpoint);
+        double avgMs = gate.averageServiceMs();
+        double drainMs = avgMs * (gate.waiting.get() + 1) / gate.limit;
+        return (int) Math.max(1, Math.min(60, Math.ceil(drainMs / 1000.0)));
+    }
+
+    /**
+     * Per-endpoint limits, load and queue-time counters.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Gate> entry : gates.entrySet()) {
+            Gate gate = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", gate.limit);
+            stats.put("inFlight", gate.limit - gate.permits.availablePermits());
+            stats.put("queued", gate.waiting.get());
+            stats.put("admitted", gate.admitted.get());
+            stats.put("rejected", gate.rejected.get());
+            long admitted = gate.admitted.get();
+            stats.put("avgQueueMs", admitted > 0 ? gate.queueNanos.get() / admitted / 1_000_000.0 : 0.0);
+            stats.put("maxQueueMs", gate.maxQueueNanos.get() / 1_000_000.0);
+            stats.put("avgServiceMs", gate.averageServiceMs());
+            endpoints.put(entry.getKey(), stats);
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("queueCapacity", queueCapacity);
+        snapshot.put("maxWaitMs", maxWaitMs);
+        snapshot.put("endpoints", endpoints);
+        return snapshot;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<String, Gate> entry : gates.entrySet()) {
+            bindGate(registry, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private Gate gate(String endpoint) {
+        Gate gate = endpoint != null ? gates.get(endpoint) : null;
+        return gate != null ? gate : gates.get(OTHER);
+    }
+
+    private Gate createGate(String endpoint) {
+        int limit = environment.getProperty("ocr.admission.limit." + endpoint, Integer.class, 0);
+        if (limit <= 0) {
+            limit = defaultLimit(endpoint);
+        }
+        return new Gate(limit);
+    }
+
+    private static void bindGate(MeterRegistry registry, String endpoint, Gate gate) {
+        Gauge.builder("helper.ocr.admission.in.flight", gate, g -> g.limit - g.permits.availablePermits())
+                .tag("endpoint", endpoint)
+                .register(registry);
+        Gauge.builder("helper.ocr.admission.queued", gate, g -> g.waiting.get())
+                .tag("endpoint", endpoint)
+                .register(registry);
+        FunctionCounter.builder("helper.ocr.admission.rejected", gate.rejected, AtomicLong::get)
+                .tag("endpoint", endpoint)
+                .register(registry);
+        FunctionTimer.builder("helper.ocr.admission.queue.wait", gate,
+                        g -> g.admitted.get(), g -> g.queueNanos.get(), TimeUnit.NANOSECONDS)
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    private int defaultLimit(String endpoint) {
+        switch (endpoint) {
+            case "multipass":
+                // each request already fans out over the OCR executor
+                return Math.max(1, cores / 2);
+            case "vision":
+            case "ocrspace":
+                // network-bound, matches the provider bulkheads
+                return 4;
+            default:
+                return cores;
+        }
+    }
+
+    private static class Gate {
+        final int limit;
+        final Semaphore permits;
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong queueNanos = new AtomicLong();
+        final AtomicLong maxQueueNanos = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong serviceNanos = new AtomicLong();
+
+        Gate(int limit) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit, true);
+        }
+
+        void admitted(long queuedNanos) {
+            admitted.incrementAndGet();
+            queueNanos.addAndGet(queuedNanos);
+            maxQueueNanos.accumulateAndGet(queuedNanos, Math::max);
+        }
+
+        void finish(long elapsedNanos) {
+            completed.incrementAndGet();
+            serviceNanos.addAndGet(elapsedNanos);
+            permits.release();
+        }
+
+        double averageServiceMs() {
+            long done = completed.get();
+            return done > 0 ? serviceNanos.get() / done / 1_000_000.0 : 1000.0;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.ivisit.helper.service;
+
+import com.ivisit.helper.utils.IdFieldExtractor;
+import com.ivisit.helper.utils.RoiTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.sourceforge.tess4j.TesseractException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiered OCR for /api/ocr/smart.
+ *
+ * Tier 1 is local Tesseract (ROI template when the ID type has one, full
+ * card otherwise). Only when the key fields are missing or below the
+ * confidence threshold does it escalate to the remote providers, in
+ * ocr.smart.remote-order. Remote calls are hedged: the next provider starts
+ * when the previous one fails or has not answered within the hedge delay,
+ * and the first usable answer wins. The whole request, local tier
+ * included, is bounded by ocr.smart.budget-ms; whatever is still running at
+ * the deadline is cancelled and the best fields found so far are returned.
+ */
+@Service
+public class OcrOrchestrator {
+
+    /** Fields that must be present and confident for local OCR to be accepted */
+    private static final String[] KEY_FIELDS = {"fullName", "idNumber"};
+
+    private final LocalOcrService localOcrService;
+    private final RoiTemplateService roiTemplateService;
+    private final VisionOcrService visionOcrService;
+    private final OcrSpaceService ocrSpaceService;
+    private final ExecutorService remoteOcrExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final long budgetMs;
+    private final int localAcceptConfidence;
+    private final long hedgeDelayMs;
+    private final String[] remoteOrder;
+    private final int visionConfidence;
+    private final int ocrSpaceConfidence;
+
+    public OcrOrchestrator(
+            LocalOcrService localOcrService,
+            RoiTemplateService roiTemplateService,
+            VisionOcrService visionOcrService,
+            OcrSpaceService ocrSpaceService,
+            @Qualifier("remoteOcrExecutor") ExecutorService remoteOcrExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${ocr.smart.budget-ms:8000}") long budgetMs,
+            @Value("${ocr.smart.local-accept-confidence:80}") int localAcceptConfidence,
+            @Value("${ocr.smart.hedge-delay-ms:1500}") long hedgeDelayMs,
+            @Value("${ocr.smart.remote-order:vision,ocrspace}") String remoteOrder,
+            @Value("${ocr.smart.vision-confidence:90}") int visionConfidence,
+            @Value("${ocr.smart.ocrspace-confidence:75}") int ocrSpaceConfidence
+    ) {
+        this.localOcrService = localOcrService;
+        this.roiTemplateService = roiTemplateService;
+        this.visionOcrService = visionOcrService;
+        this.ocrSpaceService = ocrSpaceService;
+        this.remoteOcrExecutor = remoteOcrExecutor;
+        this.meterRegistry = meterRegistry;
+        this.budgetMs = budgetMs;
+        this.localAcceptConfidence = localAcceptConfidence;
+        this.hedgeDelayMs = hedgeDelayMs;
+        this.remoteOrder = remoteOrder.trim().isEmpty() ? new String[0] : remoteOrder.split("\\s*,\\s*");
+        this.visionConfidence = visionConfidence;
+        this.ocrSpaceConfidence = ocrSpaceConfidence;
+    }
+
+    /**
+     * Run the tiers for one upload. The response has "fields", the tier that
+     * supplied each field in "fieldSources", a per-tier summary in "tiers",
+     * "elapsedMs" and "budgetExceeded".
+     */
+    public Map<String, Object> recognize(MultipartFile file, BufferedImage original, String idType)
+            throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long deadline = start + budgetMs;
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        Map<String, Integer> confidences = new HashMap<>();
+        Map<String, String> sources = new LinkedHashMap<>();
+        List<Map<String, Object>> tiers = new ArrayList<>();
+        String extractedText = "";
+
+        // Tier 1: local Tesseract
+        long localStart = System.currentTimeMillis();
+        Map<String, Object> localTier = new LinkedHashMap<>();
+        Map<String, RoiTemplate.Region> template = roiTemplateService.getTemplate(idType);
+        // LocalOcrService measures deadlines on the nanoTime clock
+        long localDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline - localStart);
+        try {
+            if (template != null) {
+                localTier.put("method", "roi");
+                StringBuilder combined = new StringBuilder();
+                for (Map.Entry<String, LocalOcrService.TextResult> entry
+                        : localOcrService.extractRoiFields(original, template, localDeadline).entrySet()) {
+                    LocalOcrService.TextResult result = entry.getValue();
+                    // ROI templates call the name region "name"; every other tier says "fullName"
+                    String key = "name".equals(entry.getKey()) ? "fullName" : entry.getKey();
+                    offer(fields, confidences, sources, key, result.text, result.confidence, "local");
+                    combined.append(result.text).append("\n");
+                }
+                extractedText = combined.toString().trim();
+            } else {
+                localTier.put("method", "tesseract");
+                LocalOcrService.TextResult result = localOcrService.recognizeFullCard(original, localDeadline);
+                extractedText = result.text != null ? result.text.trim() : "";
+                Map<String, String> parsed = IdFieldExtractor.extract(extractedText, idType);
+                for (Map.Entry<String, String> entry : parsed.entrySet()) {
+                    offer(fields, confidences, sources, entry.getKey(), entry.getValue(), result.confidence, "local");
+                }
+            }
+        } catch (TesseractException e) {
+            System.err.println("[SmartOCR] Local OCR failed: " + e.getMessage());
+            localTier.put("error", e.getMessage());
+        }
+        boolean localAccepted = keyFieldsConfident(fields, confidences);
+        localTier.put("tier", "local");
+        localTier.put("accepted", localAccepted);
+        long localElapsed = System.currentTimeMillis() - localStart;
+        localTier.put("elapsedMs", localElapsed);
+        tiers.add(localTier);
+        meterRegistry.timer("helper.ocr.smart.local",
+                "method", String.valueOf(localTier.get("method")),
+                "accepted", String.valueOf(localAccepted))
+                .record(localElapsed, TimeUnit.MILLISECONDS);
+
+        boolean budgetExceeded = false;
+        if (!localAccepted) {
+            // Tier 2: remote providers, hedged
+            List<String> providers = configuredProviders();
+            if (System.currentTimeMillis() >= deadline) {
+                // The local tier used up the budget
+                budgetExceeded = true;
+            } else if (providers.isEmpty()) {
+                System.out.println("[SmartOCR] Local OCR below threshold and no remote provider configured");
+            } else {
+                RemoteOutcome outcome = runHedged(file, original, providers, deadline, tiers);
+                budgetExceeded = outcome.budgetExceeded;
+                if (outcome.body != null) {
+                    mergeRemote(outcome.provider, outcome.body, fields, confidences, sources);
+                    Object text = outcome.body.get("extractedText");
+                    if (text instanceof String && !((String) text).trim().isEmpty()) {
+                        extractedText = ((String) text).trim();
+                    }
+                }
+            }
+        }
+
+        if (budgetExceeded) {
+            meterRegistry.counter("helper.ocr.smart.budget.exceeded").increment();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        Map<String, Object> response = new HashMap<>();
+        response.put("method", "smart");
+        response.put("fields", fields);
+        response.put("fieldSources", sources);
+        response.put("tiers", tiers);
+        response.put("extractedText", extractedText);
+        response.put("elapsedMs", elapsed);
+        response.put("budgetExceeded", budgetExceeded);
+        response.put("success", !fields.isEmpty());
+        if (idType != null) {
+            response.put("idType", idType);
+        }
+
+        System.out.println("[SmartOCR] " + fields.size() + " fields in " + elapsed + " ms (sources "
+                + sources.values() + (budgetExceeded ? ", budget exceeded" : "") + ")");
+        return response;
+    }
+
+    /**
+     * Start the first provider, then start the next one whenever the newest
+     * call fails or the hedge delay passes without an answer. Returns the
+     * first usable answer; everything else is cancelled.
+     */
+    private RemoteOutcome runHedged(MultipartFile file, BufferedImage image, List<String> providers,
+            long deadline, List<Map<String, Object>> tiers) throws InterruptedException {
+        CompletionService<Map<String, Object>> completion = new ExecutorCompletionService<>(remoteOcrExecutor);
+        Map<Future<Map<String, Object>>, String> running = new HashMap<>();
+        Map<String, Long> started = new HashMap<>();
+        RemoteOutcome outcome = new RemoteOutcome();
+
+        int next = 0;
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                if (now >= deadline) {
+                    outcome.budgetExceeded = true;
+                    break;
+                }
+
+                // Launch the next provider when nothing usable is in flight
+                if (running.isEmpty() && next < providers.size()) {
+                    next = launch(completion, file, image, providers, next, running, started, tiers);
+                    continue;
+                }
+                if (running.isEmpty()) {
+                    break; // every provider tried and failed
+                }
+
+                long wait = deadline - now;
+                if (next < providers.size()) {
+                    wait = Math.min(wait, hedgeDelayMs);
+                }
+
+                Future<Map<String, Object>> done = completion.poll(wait, TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    // Hedge: slow provider, start the next one alongside it
+                    if (next < providers.size() && System.currentTimeMillis() < deadline) {
+                        next = launch(completion, file, image, providers, next, running, started, tiers);
+                    }
+                    continue;
+                }
+
+                String provider = running.remove(done);
+                Map<String, Object> tier = remoteTier(provider, started.get(provider));
+                try {
+                    Map<String, Object> body = done.get();
+                    if (usable(body)) {
+                        tier.put("accepted", true);
+                        tiers.add(tier);
+                        outcome.provider = provider;
+                        outcome.body = body;
+                        break;
+                    }
+                    tier.put("accepted", false);
+                    tier.put("error", body != null && body.get("error") != null
+                            ? body.get("error") : "No fields returned");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("[SmartOCR] " + provider + " failed: " + cause.getMessage());
+                    tier.put("accepted", false);
+                    tier.put("error", cause.getMessage());
+                }
+                tiers.add(tier);
+            }
+        } finally {
+            for (Map.Entry<Future<Map<String, Object>>, String> entry : running.entrySet()) {
+                entry.getKey().cancel(true);
+                Map<String, Object> tier = remoteTier(entry.getValue(), started.get(entry.getValue()));
+                tier.put("accepted", false);
+                tier.put("cancelled", true);
+                tiers.add(tier);
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Submit providers[next], skipping providers the executor rejects.
+     * Returns the index of the next provider not yet started.
+     */
+    private int launch(CompletionService<Map<String, Object>> completion, MultipartFile file,
+            BufferedImage image, List<String> providers, int next, Map<Future<Map<String, Object>>, String> running,
+            Map<String, Long> started, List<Map<String, Object>> tiers) {
+        while (next < providers.size()) {
+            String provider = providers.get(next++);
+            try {
+                started.put(provider, System.currentTimeMillis());
+                running.put(completion.submit(remoteCall(provider, file, image)), provider);
+                System.out.println("[SmartOCR] Escalating to " + provider);
+                return next;
+            } catch (RejectedExecutionException e) {
+                System.err.println("[SmartOCR] Remote executor saturated, skipping " + provider);
+                Map<String, Object> tier = remoteTier(provider, started.get(provider));
+                tier.put("accepted", false);
+                tier.put("error", "Remote OCR busy");
+                tiers.add(tier);
+            }
+        }
+        return next;
+    }
+
+    private Callable<Map<String, Object>> remoteCall(String provider, MultipartFile file, BufferedImage image) {
+        // Hand over the already decoded image so the providers do not decode it again
+        if ("vision".equals(provider)) {
+            return () -> visionOcrService.recognize(file, image);
+        }
+        return () -> ocrSpaceService.recognize(file, image);
+    }
+
+    private List<String> configuredProviders() {
+        List<String> providers = new ArrayList<>();
+        for (String provider : remoteOrder) {
+            String name = provider.toLowerCase();
+            if ("vision".equals(name) && visionOcrService.isConfigured()) {
+                providers.add(name);
+            } else if ("ocrspace".equals(name) && ocrSpaceService.isConfigured()) {
+                providers.add(name);
+            }
+        }
+        return providers;
+    }
+
+    private void mergeRemote(String provider, Map<String, Object> body, Map<String, String> fields,
+            Map<String, Integer> confidences, Map<String, String> sources) {
+        int confidence = "vision".equals(provider) ? visionConfidence : ocrSpaceConfidence;
+        Map<?, ?> remoteFields = (Map<?, ?>) body.get("fields");
+        for (Map.Entry<?, ?> entry : remoteFields.entrySet()) {
+            if (entry.getValue() != null) {
+                offer(fields, confidences, sources, entry.getKey().toString(),
+                        entry.getValue().toString(), confidence, provider);
+            }
+        }
+    }
+
+    /**
+     * Keep the value for a field only if it is non-empty and more confident
+     * than what is already there.
+     */
+    private static void offer(Map<String, String> fields, Map<String, Integer> confidences,
+            Map<String, String> sources, String key, String value, int confidence, String source) {
+        if (value == null || value.trim().isEmpty()) {
+            return;
+        }
+        Integer current = confidences.get(key);
+        if (current == null || confidence > current) {
+            fields.put(key, value.trim());
+            confidences.put(key, confidence);
+            sources.put(key, source);
+        }
+    }
+
+    private boolean keyFieldsConfident(Map<String, String> fields, Map<String, Integer> confidences) {
+        for (String key : KEY_FIELDS) {
+            Integer confidence = confidences.get(key);
+            if (!fields.containsKey(key) || confidence == null || confidence < localAcceptConfidence) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A reply counts only when it carries at least one key field with text;
+     * vision always returns every key, possibly all blank.
+     * Package-private: OcrResultCache applies the same test before caching field replies.
+     */
+    static boolean usable(Map<String, Object> body) {
+        if (body == null || body.containsKey("error") || Boolean.FALSE.equals(body.get("success"))) {
+            return false;
+        }
+        Object fields = body.get("fields");
+        if (!(fields instanceof Map)) {
+            return false;
+        }
+        for (String key : KEY_FIELDS) {
+            Object value = ((Map<?, ?>) fields).get(key);
+            if (value != null && !value.toString().trim().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Object> remoteTier(String provider, Long startedAt) {
+        Map<String, Object> tier = new LinkedHashMap<>();
+        tier.put("tier", "remote");
+        tier.put("method", provider);
+        if (startedAt != null) {
+            tier.put("elapsedMs", System.currentTimeMillis() - startedAt);
+        }
+        return tier;
+    }
+
+    private static class RemoteOutcome {
+        String provider;
+        Map<String, Object> body;
+        boolean budgetExceeded;
+    }
+}
@@ -0,0 +1,294 @@
+package com.ivisit.helper.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of OCR responses keyed by image content hash plus endpoint and
+ * request parameters, so re-submitting the same capture (retakes, switching
+ * endpoints) skips preprocessing, Tesseract and paid remote calls.
+ *
+ * Bounded by entry count and by the approximate JSON size of the entries.
+ * The debug processedImageBase64 image is never stored. When ocr.cache.dir
+ * is set, entries are also written there as JSON and reloaded on startup;
+ * they hold ID-card text, so point it at a directory only the helper can read.
+ */
+@Service
+public class OcrResultCache {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE =
+            new TypeReference<Map<String, Object>>() {};
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    // Debug-only response fields, too large to keep and useless on a replay
+    private static final String[] UNCACHED_FIELDS = {"processedImageBase64"};
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Path cacheDir;
+
+    private final LinkedHashMap<String, Map<String, Object>> entries;
+    // Serialized size of each entry, and their total
+    private final Map<String, Integer> entryBytes = new HashMap<>();
+    private long totalBytes;
+
+    public OcrResultCache(
+            ObjectMapper objectMapper,
+            @Value("${ocr.cache.enabled:true}") boolean enabled,
+            @Value("${ocr.cache.max-entries:128}") int maxEntries,
+            @Value("${ocr.cache.max-bytes:8388608}") long maxBytes,
+            @Value("${ocr.cache.dir:}") String cacheDir
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled && maxEntries > 0 && maxBytes > 0;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.cacheDir = (cacheDir != null && !cacheDir.trim().isEmpty())
+                ? Paths.get(cacheDir.trim())
+                : null;
+
+        // access-ordered: iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled || cacheDir == null || !Files.isDirectory(cacheDir)) {
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "*.json")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("[OcrResultCache] Failed to list " + cacheDir + ": " + e.getMessage());
+            return;
+        }
+
+        // Oldest first, so the newest entries survive the size limit
+        files.sort((a, b) -> Long.compare(lastModified(a), lastModified(b)));
+
+        int loaded = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String key = name.substring(0, name.length() - ".json".length());
+            try {
+                byte[] json = Files.readAllBytes(file);
+                Map<String, Object> body = objectMapper.readValue(json, MAP_TYPE);
+                // Entries written before debug fields were stripped are rewritten without them
+                if (stripUncached(body)) {
+                    json = objectMapper.writeValueAsBytes(body);
+                    Files.write(file, json);
+                }
+                List<String> evicted;
+                synchronized (this) {
+                    evicted = store(key, body, json.length);
+                }
+                deleteFiles(evicted);
+                loaded++;
+            } catch (IOException e) {
+                System.err.println("[OcrResultCache] Skipping unreadable entry " + name + ": " + e.getMessage());
+            }
+        }
+        System.out.println("[OcrResultCache] Loaded " + loaded + " cached OCR results from " + cacheDir);
+    }
+
+    /**
+     * Cache key for an upload: SHA-256 over the file content, the endpoint
+     * and any parameters that change the result. Returns null when caching
+     * is disabled or the file cannot be read.
+     */
+    public String key(MultipartFile file, String endpoint, String... params) {
+        if (!enabled) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            try (InputStream in = file.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+
+            digest.update((byte) 0);
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            for (String param : params) {
+                digest.update((byte) 0);
+                if (param != null) {
+                    digest.update(param.toLowerCase().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            return toHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            System.err.println("[OcrResultCache] Could not hash upload: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cached response for the key, marked with "cached": true, or null.
+     */
+    public Map<String, Object> get(String key) {
+        if (key == null) {
+            return null;
+        }
+
+        Map<String, Object> body;
+        synchronized (this) {
+            body = entries.get(key);
+        }
+        if (body == null) {
+            return null;
+        }
+
+        Map<String, Object> copy = new HashMap<>(body);
+        copy.put("cached", true);
+        return copy;
+    }
+
+    /**
+     * Remember a successful response. Error responses are not cached, so a
+     * retry after a provider hiccup is not answered with the old failure.
+     */
+    public void put(String key, Map<String, Object> body) {
+        if (key == null || body == null || body.containsKey("error")
+                || Boolean.FALSE.equals(body.get("success"))) {
+            return;
+        }
+
+        Map<String, Object> copy = new HashMap<>(body);
+        stripUncached(copy);
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(copy);
+        } catch (IOException e) {
+            System.err.println("[OcrResultCache] Could not serialize entry: " + e.getMessage());
+            return;
+        }
+        if (json.length > maxBytes) {
+            return;
+        }
+
+        List<String> evicted;
+        synchronized (this) {
+            evicted = store(key, copy, json.length);
+        }
+
+        if (cacheDir != null) {
+            persist(key, json, evicted);
+        }
+    }
+
+    /**
+     * Like put, for responses with extracted "fields": only stored when the
+     * smart orchestrator would accept them, so a reply with no usable fields
+     * (e.g. a failed vision parse) is not replayed on every retake.
+     */
+    public void putIfUsable(String key, Map<String, Object> body) {
+        if (OcrOrchestrator.usable(body)) {
+            put(key, body);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private List<String> store(String key, Map<String, Object> body, int bytes) {
+        entries.put(key, body);
+        Integer previous = entryBytes.put(key, bytes);
+        totalBytes += bytes - (previous != null ? previous : 0);
+
+        List<String> evicted = new ArrayList<>();
+        while (entries.size() > maxEntries || totalBytes > maxBytes) {
+            String eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+            totalBytes -= entryBytes.remove(eldest);
+            evicted.add(eldest);
+        }
+        return evicted;
+    }
+
+    private static boolean stripUncached(Map<String, Object> body) {
+        boolean stripped = false;
+        for (String field : UNCACHED_FIELDS) {
+            stripped |= body.remove(field) != null;
+        }
+        return stripped;
+    }
+
+    private void persist(String key, byte[] json, List<String> evicted) {
+        try {
+            Files.createDirectories(cacheDir);
+            Files.write(cacheDir.resolve(key + ".json"), json);
+        } catch (IOException e) {
+            System.err.println("[OcrResultCache] Failed to persist entry: " + e.getMessage());
+        }
+        deleteFiles(evicted);
+    }
+
+    private void deleteFiles(List<String> keys) {
+        if (cacheDir == null) {
+            return;
+        }
+        for (String old : keys) {
+            try {
+                Files.deleteIfExists(cacheDir.resolve(old + ".json"));
+            } catch (IOException e) {
+                System.err.println("[OcrResultCache] Failed to delete " + old + ".json: " + e.getMessage());
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.ivisit.helper.service;
+
+import com.ivisit.helper.config.RemoteHttpConfig;
+import com.ivisit.helper.utils.IdFieldExtractor;
+import com.ivisit.helper.utils.ImagePreprocessor;
+import com.ivisit.helper.utils.RemoteImageEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * OCR.space API client for text extraction.
+ * API docs: https://ocr.space/ocrapi
+ */
+@Service
+public class OcrSpaceService implements MeterBinder {
+
+    // Longest side of the uploaded image; keeps the JPEG well under the 1MB free-tier limit
+    private static final int MAX_DIMENSION = 1200;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final String apiKey;
+    private final String apiUrl;
+    private final RestTemplate restTemplate;
+    private final RemoteCallGuard guard;
+
+    public OcrSpaceService(
+            CloseableHttpClient remoteOcrHttpClient,
+            @Value("${ocrspace.api.key}") String apiKey,
+            @Value("${ocrspace.api.url}") String apiUrl,
+            @Value("${ocrspace.http.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${ocrspace.http.read-timeout-ms:15000}") int readTimeoutMs,
+            @Value("${ocrspace.max-concurrent:4}") int maxConcurrent,
+            @Value("${ocr.remote.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ocr.remote.breaker.open-ms:30000}") long openMs
+    ) {
+        this.apiKey = apiKey;
+        this.apiUrl = apiUrl;
+        this.restTemplate = RemoteHttpConfig.restTemplate(
+                remoteOcrHttpClient, connectTimeoutMs, readTimeoutMs, connectTimeoutMs);
+        this.guard = new RemoteCallGuard("OCR.space", failureThreshold, openMs, maxConcurrent);
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.trim().isEmpty();
+    }
+
+    public RemoteCallGuard getCallGuard() {
+        return guard;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        guard.bindTo(registry);
+    }
+
+    /**
+     * Send the image to OCR.space and return parsed text and structured fields.
+     * The map always has "method"; "success" tells whether text came back.
+     */
+    public Map<String, Object> recognize(MultipartFile file) throws Exception {
+        return recognize(file, null);
+    }
+
+    /**
+     * Same as {@link #recognize(MultipartFile)} for an upload the caller has
+     * already decoded, so the image is not decoded twice.
+     */
+    public Map<String, Object> recognize(MultipartFile file, BufferedImage decoded) throws Exception {
+        BufferedImage image = decoded;
+        if (image == null) {
+            try (InputStream in = file.getInputStream()) {
+                image = ImagePreprocessor.readForOcr(in);
+            }
+        }
+
+        // Keep the upload small for the OCR.space free tier (1MB limit)
+        BufferedImage upload = image != null ? RemoteImageEncoder.fitRgb(image, MAX_DIMENSION) : null;
+        if (upload == null) {
+            System.err.println("[OCR.space] Unreadable image, sending original");
+        }
+
+        String boundary = "----ivisit" + UUID.randomUUID().toString().replace("-", "");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("multipart/form-data; boundary=" + boundary));
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.set("apikey", apiKey);
+
+        // Multipart body written by hand so the JPEG streams into the connection
+        StreamingHttpOutputMessage.Body body = out -> {
+            writeField(out, boundary, "language", "eng");
+            writeField(out, boundary, "isOverlayRequired", "false");
+            writeField(out, boundary, "detectOrientation", "true");
+            writeField(out, boundary, "scale", "true");
+            writeField(out, boundary, "OCREngine", "2"); // Engine 2 is better for complex backgrounds
+
+            writeAscii(out, "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file\"; filename=\"id-card.jpg\"\r\n"
+                    + "Content-Type: image/jpeg\r\n\r\n");
+            if (upload != null) {
+                RemoteImageEncoder.writeJpeg(upload, JPEG_QUALITY, out);
+            } else {
+                try (InputStream in = file.getInputStream()) {
+                    RemoteImageEncoder.copy(in, out);
+                }
+            }
+            writeAscii(out, "\r\n--" + boundary + "--\r\n");
+        };
+
+        // Call OCR.space API
+        System.out.println("[OCR.space] Sending request...");
+        ResponseEntity<Map> response = guard.call(() -> restTemplate.execute(apiUrl, HttpMethod.POST,
+                RemoteHttpConfig.streamingRequest(headers, body),
+                restTemplate.<Map>responseEntityExtractor(Map.class)));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("method", "ocrspace");
+
+        if (response.getBody() != null) {
+            List<Map<String, Object>> parsedResults = (List<Map<String, Object>>) response.getBody()
+                    .get("ParsedResults");
+
+            if (parsedResults != null && !parsedResults.isEmpty()) {
+                String parsedText = (String) parsedResults.get(0).get("ParsedText");
+                result.put("extractedText", parsedText != null ? parsedText : "");
+                result.put("success", true);
+
+                // Try to extract structured fields from text
+                Map<String, String> fields = IdFieldExtractor.extract(parsedText);
+                result.put("fields", fields);
+
+                System.out.println("[OCR.space] Success - extracted " +
+                        (parsedText != null ? parsedText.length() : 0) + " characters");
+            } else {
+                // Check for errors - handle both String and List types
+                Boolean isErroredOnProcessing = (Boolean) response.getBody().get("IsErroredOnProcessing");
+                Object errorMessageObj = response.getBody().get("ErrorMessage");
+                String errorMessage = "Unknown error";
+
+                if (errorMessageObj instanceof String) {
+                    errorMessage = (String) errorMessageObj;
+                } else if (errorMessageObj instanceof List) {
+                    List<?> errorList = (List<?>) errorMessageObj;
+                    if (!errorList.isEmpty()) {
+                        errorMessage = errorList.get(0).toString();
+                    }
+                }
+
+                if (Boolean.TRUE.equals(isErroredOnProcessing)) {
+                    System.err.println("[OCR.space] Error: " + errorMessage);
+                    result.put("error", errorMessage);
+                    result.put("success", false);
+                } else {
+                    result.put("extractedText", "");
+                    result.put("success", false);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static void writeField(OutputStream out, String boundary, String name, String value)
+            throws IOException {
+        writeAscii(out, "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n");
+    }
+
+    private static void writeAscii(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,183 @@
+package com.ivisit.helper.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker plus bulkhead around one remote OCR provider.
+ *
+ * At most maxConcurrent calls run at once; extra callers are turned away
+ * immediately instead of queueing. After failureThreshold consecutive
+ * failures the circuit opens and calls fail fast for openMs, then a single
+ * trial call decides whether it closes again. Client errors (4xx other than
+ * 429) are the caller's fault and do not count as provider failures.
+ *
+ * Call outcomes and latency are kept as plain counters and published as
+ * helper.ocr.remote.* meters once bound to a registry.
+ */
+public class RemoteCallGuard implements MeterBinder {
+
+    /**
+     * Thrown without calling the provider when the circuit is open or the
+     * bulkhead is full.
+     */
+    public static class ProviderUnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ProviderUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMs;
+    private final Semaphore bulkhead;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong clientErrors = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    public RemoteCallGuard(String name, int failureThreshold, long openMs, int maxConcurrent) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+        this.bulkhead = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    public <T> T call(Callable<T> remoteCall) throws Exception {
+        if (!tryEnter()) {
+            rejected.incrementAndGet();
+            throw new ProviderUnavailableException(name + " temporarily unavailable (circuit open)");
+        }
+        if (!bulkhead.tryAcquire()) {
+            releaseTrial();
+            rejected.incrementAndGet();
+            throw new ProviderUnavailableException(name + " busy, too many concurrent requests");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = remoteCall.call();
+            onSuccess();
+            successes.incrementAndGet();
+            return result;
+        } catch (HttpClientErrorException e) {
+            if (e.getRawStatusCode() == 429) {
+                onFailure();
+                failures.incrementAndGet();
+            } else {
+                onSuccess();
+                clientErrors.incrementAndGet();
+            }
+            throw e;
+        } catch (Exception e) {
+            onFailure();
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            completed.incrementAndGet();
+            elapsedNanos.addAndGet(System.nanoTime() - start);
+            bulkhead.release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized String getState() {
+        return state.name();
+    }
+
+    public int getAvailableSlots() {
+        return bulkhead.availablePermits();
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindOutcome(registry, "success", successes);
+        bindOutcome(registry, "failure", failures);
+        bindOutcome(registry, "client_error", clientErrors);
+        bindOutcome(registry, "rejected", rejected);
+        FunctionTimer.builder("helper.ocr.remote.latency", this,
+                        g -> g.completed.get(), g -> g.elapsedNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Remote OCR calls that reached the provider")
+                .tag("provider", name)
+                .register(registry);
+        Gauge.builder("helper.ocr.remote.circuit.open", this, g -> "CLOSED".equals(g.getState()) ? 0 : 1)
+                .description("1 while the provider's circuit is open or half-open")
+                .tag("provider", name)
+                .register(registry);
+        Gauge.builder("helper.ocr.remote.slots.available", this, RemoteCallGuard::getAvailableSlots)
+                .tag("provider", name)
+                .register(registry);
+    }
+
+    private void bindOutcome(MeterRegistry registry, String outcome, AtomicLong counter) {
+        FunctionCounter.builder("helper.ocr.remote.calls", counter, AtomicLong::get)
+                .tag("provider", name)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private synchronized boolean tryEnter() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            // Let exactly one trial call through
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            System.out.println("[" + name + "] Circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                System.err.println("[" + name + "] Circuit opened after " + consecutiveFailures
+                        + " consecutive failures");
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+}
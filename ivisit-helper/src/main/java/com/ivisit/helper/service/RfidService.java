@@ -1,16 +1,43 @@
 package com.ivisit.helper.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Service;
 
 import javax.smartcardio.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-public class RfidService {
+public class RfidService implements MeterBinder {
+
+    /**
+     * A UID read plus the moment the card was detected on the reader.
+     */
+    public static class CardRead {
+        public final String uid;
+        public final long presentAtNanos;
+
+        CardRead(String uid, long presentAtNanos) {
+            this.uid = uid;
+            this.presentAtNanos = presentAtNanos;
+        }
+    }
 
     private TerminalFactory terminalFactory;
     private CardTerminals cachedTerminals;
 
+    // Reader state as seen by the last terminal listing (0 = never checked)
+    private volatile long readerCheckedAt;
+    private volatile boolean readerConnected;
+    private volatile String readerName;
+    private volatile String readerError;
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong cardsRead = new AtomicLong();
+
     private synchronized TerminalFactory getFactory() {
         if (terminalFactory == null) {
             terminalFactory = TerminalFactory.getDefault();
@@ -20,6 +47,7 @@ public class RfidService {
 
     public synchronized void resetScanner() {
         System.out.println("[RfidService] Resetting smartcard context...");
+        resets.incrementAndGet();
 
         terminalFactory = null;
         cachedTerminals = null;
@@ -36,6 +64,15 @@ public class RfidService {
     }
 
     public String readCardUID(int timeoutMs) throws Exception {
+        CardRead read = readCard(timeoutMs);
+        return read != null ? read.uid : null;
+    }
+
+    /**
+     * Wait up to timeoutMs for a card and read its UID. Returns null when no
+     * card was presented or the reader could not return a UID.
+     */
+    public CardRead readCard(int timeoutMs) throws Exception {
         // System.out.println("[RfidService] readCardUID called with timeoutMs=" + timeoutMs);
 
         List<CardTerminal> terminals;
@@ -46,6 +83,7 @@ public class RfidService {
             terminals = cachedTerminals.list();
         } catch (CardException e) {
             System.out.println("[RfidService] CardException during terminal listing. Forcing reset.");
+            markReaderMissing(e.getMessage());
             resetScanner();
             throw e;
         }
@@ -56,11 +94,13 @@ public class RfidService {
         //}
 
         if (terminals.isEmpty()) {
+            markReaderMissing("No card terminals found");
             throw new IllegalStateException("No card terminals found");
         }
 
         // Prefer the CL (contactless) reader
         CardTerminal terminal = selectContactlessTerminal(terminals);
+        markReaderConnected(terminal.getName());
 
         //System.out.println("[RfidService] using terminal: " + terminal.getName());
 
@@ -70,6 +110,7 @@ public class RfidService {
         if (!present) {
             return null; // timeout, no card
         }
+        long presentAt = System.nanoTime();
 
         Card card = terminal.connect("*");
         try {
@@ -84,7 +125,8 @@ public class RfidService {
                 byte[] uidBytes = resp.getData();
                 String uidHex = bytesToHex(uidBytes);
                 System.out.println("[RfidService] UID hex = " + uidHex);
-                return uidHex;
+                cardsRead.incrementAndGet();
+                return new CardRead(uidHex, presentAt);
             } else {
                 System.out.println("[RfidService] GET UID not supported or failed.");
                 return null;
@@ -95,6 +137,58 @@ public class RfidService {
         }
     }
 
+    public boolean isReaderConnected() {
+        return readerConnected;
+    }
+
+    public long getReaderCheckedAt() {
+        return readerCheckedAt;
+    }
+
+    public String getReaderName() {
+        return readerName;
+    }
+
+    public String getReaderError() {
+        return readerError;
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("helper.rfid.reader.connected", this, s -> s.readerConnected ? 1 : 0)
+                .description("1 while an RFID reader is attached")
+                .register(registry);
+        FunctionCounter.builder("helper.rfid.reader.reconnects", reconnects, AtomicLong::get)
+                .description("Reader came back after being missing")
+                .register(registry);
+        FunctionCounter.builder("helper.rfid.reader.resets", resets, AtomicLong::get)
+                .description("Smartcard context resets")
+                .register(registry);
+        FunctionCounter.builder("helper.rfid.cards.read", cardsRead, AtomicLong::get)
+                .register(registry);
+    }
+
+    private void markReaderConnected(String name) {
+        if (readerCheckedAt > 0 && !readerConnected) {
+            reconnects.incrementAndGet();
+            System.out.println("[RfidService] RFID reader reconnected: " + name);
+        }
+        readerName = name;
+        readerError = null;
+        readerConnected = true;
+        readerCheckedAt = System.currentTimeMillis();
+    }
+
+    private void markReaderMissing(String reason) {
+        readerError = reason;
+        readerConnected = false;
+        readerCheckedAt = System.currentTimeMillis();
+    }
+
     private CardTerminal selectContactlessTerminal(List<CardTerminal> terminals) {
         // Try to find a reader whose name suggests "contactless"
         for (CardTerminal t : terminals) {
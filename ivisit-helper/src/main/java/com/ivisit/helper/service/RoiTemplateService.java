@@ -0,0 +1,167 @@
+package com.ivisit.helper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivisit.helper.utils.RoiTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ROI templates loaded from JSON instead of code.
+ *
+ * The bundled roi-templates.json is the default. When the file at
+ * ocr.roi.templates-path exists it is used instead and reloaded whenever it
+ * changes on disk (checked at most every ocr.roi.reload-interval-ms, on
+ * lookup), so regions can be tuned at a station without a restart.
+ * Lookups read an immutable snapshot; a file that fails to parse or
+ * validate is logged and the previous templates stay in effect.
+ */
+@Service
+public class RoiTemplateService {
+
+    private static final String BUNDLED_TEMPLATES = "roi-templates.json";
+
+    private final ObjectMapper objectMapper;
+    private final Path templatesPath;
+    private final long reloadIntervalMs;
+
+    // lowercase idType or alias -> regions; replaced as a whole on reload
+    private volatile Map<String, Map<String, RoiTemplate.Region>> templates = Collections.emptyMap();
+    private volatile long loadedModified = -1L;
+    private volatile long lastCheck;
+
+    public RoiTemplateService(
+            ObjectMapper objectMapper,
+            @Value("${ocr.roi.templates-path:roi-templates.json}") String templatesPath,
+            @Value("${ocr.roi.reload-interval-ms:2000}") long reloadIntervalMs
+    ) {
+        this.objectMapper = objectMapper;
+        this.templatesPath = (templatesPath != null && !templatesPath.trim().isEmpty())
+                ? Paths.get(templatesPath.trim())
+                : null;
+        this.reloadIntervalMs = reloadIntervalMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        try (InputStream in = new ClassPathResource(BUNDLED_TEMPLATES).getInputStream()) {
+            templates = parse(objectMapper.readTree(in));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[RoiTemplates] Failed to load bundled templates: " + e.getMessage());
+        }
+        reloadIfChanged();
+        System.out.println("[RoiTemplates] " + getIdTypes().size() + " ID type names loaded"
+                + (loadedModified >= 0 ? " from " + templatesPath : " (bundled)"));
+    }
+
+    /**
+     * Regions for an ID type (case-insensitive, aliases allowed), or null
+     * when there is no template for it. The returned map is read-only.
+     */
+    public Map<String, RoiTemplate.Region> getTemplate(String idType) {
+        if (idType == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastCheck >= reloadIntervalMs) {
+            lastCheck = now;
+            reloadIfChanged();
+        }
+        return templates.get(idType.toLowerCase());
+    }
+
+    /**
+     * Every accepted ID type name and alias, lowercase.
+     */
+    public Set<String> getIdTypes() {
+        return templates.keySet();
+    }
+
+    private synchronized void reloadIfChanged() {
+        if (templatesPath == null || !Files.isRegularFile(templatesPath)) {
+            return;
+        }
+
+        long modified;
+        try {
+            modified = Files.getLastModifiedTime(templatesPath).toMillis();
+        } catch (IOException e) {
+            return;
+        }
+        if (modified == loadedModified) {
+            return;
+        }
+
+        try {
+            templates = parse(objectMapper.readTree(templatesPath.toFile()));
+            if (loadedModified >= 0) {
+                System.out.println("[RoiTemplates] Reloaded " + templatesPath);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[RoiTemplates] Keeping previous templates, " + templatesPath
+                    + " is invalid: " + e.getMessage());
+        }
+        // Remember the version even when invalid, so it is not re-parsed on every lookup
+        loadedModified = modified;
+    }
+
+    private static Map<String, Map<String, RoiTemplate.Region>> parse(JsonNode root) {
+        JsonNode list = root.path("templates");
+        if (!list.isArray()) {
+            throw new IllegalArgumentException("missing \"templates\" array");
+        }
+
+        Map<String, Map<String, RoiTemplate.Region>> byType = new HashMap<>();
+        for (JsonNode template : list) {
+            String idType = template.path("idType").asText("").trim();
+            if (idType.isEmpty()) {
+                throw new IllegalArgumentException("template without idType");
+            }
+
+            Map<String, RoiTemplate.Region> regions = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = template.path("regions").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                regions.put(field.getKey(), region(idType, field.getKey(), field.getValue()));
+            }
+            if (regions.isEmpty()) {
+                throw new IllegalArgumentException(idType + " has no regions");
+            }
+
+            Map<String, RoiTemplate.Region> frozen = Collections.unmodifiableMap(regions);
+            byType.put(idType.toLowerCase(), frozen);
+            for (JsonNode alias : template.path("aliases")) {
+                byType.put(alias.asText().trim().toLowerCase(), frozen);
+            }
+        }
+        return Collections.unmodifiableMap(byType);
+    }
+
+    private static RoiTemplate.Region region(String idType, String name, JsonNode node) {
+        double x = node.path("x").asDouble(-1);
+        double y = node.path("y").asDouble(-1);
+        double width = node.path("width").asDouble(-1);
+        double height = node.path("height").asDouble(-1);
+
+        // Percentages of the card; allow a little rounding slack at the far edges
+        if (x < 0 || y < 0 || width <= 0 || height <= 0 || x + width > 1.001 || y + height > 1.001) {
+            throw new IllegalArgumentException(idType + "." + name + " is outside the card");
+        }
+        return new RoiTemplate.Region(x, y, width, height);
+    }
+}
@@ -0,0 +1,528 @@
+package com.ivisit.helper.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of Tesseract engines, one sub-pool per configuration profile.
+ *
+ * Engines keep their native TessBaseAPI handle alive between borrows, so the
+ * traineddata is loaded once per engine instead of once per doOCR call.
+ * A Tesseract instance is not thread-safe: borrow one, use it on the current
+ * thread only, and always hand it back with {@link #release(Tesseract)}.
+ *
+ * Each profile is limited to maxPerProfile borrowed engines, and all profiles
+ * together to maxEngines loaded engines. When a profile needs a new engine
+ * and the global limit is reached, an idle engine of another profile is shut
+ * down to make room.
+ *
+ * Per-profile utilization and borrow waits are published as
+ * helper.tesseract.pool.* meters.
+ */
+@Service
+public class TesseractPool implements MeterBinder {
+
+    private static final String WHITELIST_WIDE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789- /";
+    private static final String WHITELIST_WIDE_PUNCT =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789- /,.";
+    private static final String WHITELIST_ROI =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-/., ";
+    private static final String WHITELIST_NAME =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz -";
+    private static final String WHITELIST_ROI_NAME =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz,.- ";
+    private static final String WHITELIST_ROI_ID = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-";
+    private static final String WHITELIST_ROI_DATE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789/-, ";
+    private static final String WHITELIST_NUMERIC = "0123456789-";
+    private static final String WHITELIST_DOB = "0123456789/-";
+
+    /**
+     * Engine configurations. Each profile fixes page segmentation mode and
+     * whitelist, so a pooled engine never has to be reconfigured.
+     */
+    public enum Profile {
+        /** Single block of text, wide whitelist (default for /api/ocr) */
+        BLOCK,
+        /** Single line, wide whitelist (mode=line) */
+        LINE,
+        /** Single uppercase name line */
+        NAME,
+        /** Numeric ID numbers with hyphens */
+        NUMERIC,
+        /** Dates with digits and separators */
+        DOB,
+        /** Automatic segmentation used by the multipass endpoint */
+        MULTIPASS,
+        /** Single line crops produced by ROI templates */
+        ROI,
+        /** ROI name line: letters and name punctuation only */
+        ROI_NAME,
+        /** ROI ID number: uppercase letters, digits and hyphens (license numbers have a letter prefix) */
+        ROI_ID,
+        /** ROI date: digits, separators and uppercase month names */
+        ROI_DATE,
+        /** ROI multi-line block such as an address */
+        ROI_BLOCK;
+
+        /**
+         * Map the mode/profile request parameters of /api/ocr to a profile.
+         * An explicit profile wins over the mode hint.
+         */
+        public static Profile fromRequest(String mode, String profile) {
+            if (profile != null) {
+                switch (profile.toLowerCase()) {
+                    case "name":
+                        return NAME;
+                    case "numeric":
+                        return NUMERIC;
+                    case "dob":
+                        return DOB;
+                    default:
+                        break;
+                }
+            }
+            return "line".equalsIgnoreCase(mode) ? LINE : BLOCK;
+        }
+    }
+
+    // How often a borrower waiting for a global engine slot looks for an idle engine to evict
+    private static final long SLOT_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final String dataPath;
+    private final int maxPerProfile;
+    private final int maxEngines;
+    private final long borrowTimeoutMs;
+    private final long shutdownWaitMs;
+    private final Map<Profile, ProfilePool> pools = new EnumMap<>(Profile.class);
+    // One permit per loaded engine, idle or borrowed, across all profiles
+    private final Semaphore engineSlots;
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile boolean closed;
+
+    public TesseractPool(
+            @Value("${tesseract.datapath}") String dataPath,
+            @Value("${tesseract.pool.max-per-profile:0}") int maxPerProfile,
+            @Value("${tesseract.pool.max-engines:0}") int maxEngines,
+            @Value("${tesseract.pool.borrow-timeout-ms:30000}") long borrowTimeoutMs,
+            @Value("${tesseract.pool.shutdown-wait-ms:10000}") long shutdownWaitMs
+    ) {
+        this.dataPath = dataPath;
+        int cores = Math.max(1, Runtime.getRuntime().availableProcessors());
+        // 0 (or less) means one engine per core
+        this.maxPerProfile = maxPerProfile > 0 ? maxPerProfile : cores;
+        // 0 (or less) means two per core, enough for a full-card and an ROI profile at full load
+        this.maxEngines = Math.max(this.maxPerProfile, maxEngines > 0 ? maxEngines : 2 * cores);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.shutdownWaitMs = shutdownWaitMs;
+        this.engineSlots = new Semaphore(this.maxEngines);
+
+        for (Profile profile : Profile.values()) {
+            pools.put(profile, new ProfilePool(this.maxPerProfile));
+        }
+    }
+
+    /**
+     * Borrow an engine for the given profile, creating one if the profile is
+     * below its limit. Blocks up to the configured timeout when all engines
+     * of this profile are in use.
+     */
+    public Tesseract borrow(Profile profile) throws TesseractException {
+        return borrow(profile, borrowTimeoutMs);
+    }
+
+    /**
+     * Borrow with a caller-supplied wait limit, e.g. what is left of a
+     * request's time budget. Never waits longer than the configured timeout.
+     */
+    public Tesseract borrow(Profile profile, long timeoutMs) throws TesseractException {
+        if (closed) {
+            throw new TesseractException("OCR engine pool is shut down");
+        }
+        ProfilePool pool = pools.get(profile);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(timeoutMs, borrowTimeoutMs)));
+        try {
+            if (!pool.permits.tryAcquire(deadline - start, TimeUnit.NANOSECONDS)) {
+                pool.timeouts.incrementAndGet();
+                throw new TesseractException("No OCR engine available for profile " + profile);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for OCR engine");
+        }
+
+        PooledTesseract engine = pool.idle.poll();
+        if (engine == null) {
+            try {
+                reserveEngineSlot(profile, deadline);
+            } catch (TesseractException e) {
+                pool.timeouts.incrementAndGet();
+                pool.permits.release();
+                throw e;
+            }
+            engine = create(profile);
+            pool.created.incrementAndGet();
+        }
+        pool.borrows.incrementAndGet();
+        pool.waitNanos.addAndGet(System.nanoTime() - start);
+        return engine;
+    }
+
+    /**
+     * Return a borrowed engine to its pool.
+     */
+    public void release(Tesseract tesseract) {
+        if (!(tesseract instanceof PooledTesseract)) {
+            return;
+        }
+        PooledTesseract engine = (PooledTesseract) tesseract;
+        ProfilePool pool = pools.get(engine.profile);
+        if (closed || engineSlots.hasQueuedThreads()) {
+            // Shutting down, or another profile is waiting for an engine slot: free this one
+            engine.shutdown();
+            engineSlots.release();
+        } else {
+            pool.idle.offer(engine);
+        }
+        pool.permits.release();
+    }
+
+    /**
+     * Drop a borrowed engine instead of returning it, e.g. after a native
+     * failure that may have left its handle in a bad state.
+     */
+    public void discard(Tesseract tesseract) {
+        if (!(tesseract instanceof PooledTesseract)) {
+            return;
+        }
+        PooledTesseract engine = (PooledTesseract) tesseract;
+        engine.shutdown();
+        engineSlots.release();
+        pools.get(engine.profile).permits.release();
+    }
+
+    /**
+     * Mean word confidence (0-100) of the last recognition done by a pooled
+     * engine, read from the still-loaded handle without recognizing again.
+     * Returns -1 for engines that did not come from this pool.
+     */
+    public static int lastMeanConfidence(Tesseract tesseract) {
+        if (!(tesseract instanceof PooledTesseract)) {
+            return -1;
+        }
+        return ((PooledTesseract) tesseract).meanConfidence();
+    }
+
+    public int getMaxPerProfile() {
+        return maxPerProfile;
+    }
+
+    public int getMaxEngines() {
+        return maxEngines;
+    }
+
+    /**
+     * Engines currently loaded, idle or borrowed, across all profiles.
+     */
+    public int getLoadedEngines() {
+        return maxEngines - engineSlots.availablePermits();
+    }
+
+    public String getDataPath() {
+        return dataPath;
+    }
+
+    /**
+     * True when the English traineddata the engines load is present.
+     */
+    public boolean isDataAvailable() {
+        return new File(dataPath, "eng.traineddata").isFile();
+    }
+
+    /**
+     * Engines in use per profile, only for profiles that are busy.
+     */
+    public Map<String, Integer> inUseByProfile() {
+        Map<String, Integer> inUse = new LinkedHashMap<>();
+        for (Map.Entry<Profile, ProfilePool> entry : pools.entrySet()) {
+            int busy = entry.getValue().inUse(maxPerProfile);
+            if (busy > 0) {
+                inUse.put(entry.getKey().name(), busy);
+            }
+        }
+        return inUse;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("helper.tesseract.pool.max", this, TesseractPool::getMaxPerProfile)
+                .description("Engine limit per profile")
+                .register(registry);
+        Gauge.builder("helper.tesseract.pool.engines.max", this, TesseractPool::getMaxEngines)
+                .description("Engine limit across all profiles")
+                .register(registry);
+        Gauge.builder("helper.tesseract.pool.engines.loaded", this, TesseractPool::getLoadedEngines)
+                .register(registry);
+        FunctionCounter.builder("helper.tesseract.pool.engines.evicted", evictions, AtomicLong::get)
+                .description("Idle engines shut down to make room for another profile")
+                .register(registry);
+        for (Map.Entry<Profile, ProfilePool> entry : pools.entrySet()) {
+            String profile = entry.getKey().name();
+            ProfilePool pool = entry.getValue();
+            Gauge.builder("helper.tesseract.pool.active", pool, p -> p.inUse(maxPerProfile))
+                    .tag("profile", profile)
+                    .register(registry);
+            Gauge.builder("helper.tesseract.pool.idle", pool, p -> p.idle.size())
+                    .tag("profile", profile)
+                    .register(registry);
+            FunctionTimer.builder("helper.tesseract.pool.borrow.wait", pool,
+                            p -> p.borrows.get(), p -> p.waitNanos.get(), TimeUnit.NANOSECONDS)
+                    .tag("profile", profile)
+                    .register(registry);
+            FunctionCounter.builder("helper.tesseract.pool.borrow.timeouts", pool.timeouts, AtomicLong::get)
+                    .tag("profile", profile)
+                    .register(registry);
+            FunctionCounter.builder("helper.tesseract.pool.engines.created", pool.created, AtomicLong::get)
+                    .tag("profile", profile)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Shuts down idle engines, then waits up to tesseract.pool.shutdown-wait-ms
+     * for borrowed ones, which {@link #release(Tesseract)} shuts down once the
+     * pool is closed. An engine still borrowed after that is stuck in native
+     * code; disposing it under the running call would crash the JVM, so it is
+     * reported and left for process exit to reclaim.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        disposeIdle();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownWaitMs);
+        int stuck = 0;
+        for (Map.Entry<Profile, ProfilePool> entry : pools.entrySet()) {
+            ProfilePool pool = entry.getValue();
+            try {
+                if (!pool.permits.tryAcquire(maxPerProfile, Math.max(0, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS)) {
+                    stuck += pool.inUse(maxPerProfile);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stuck += pool.inUse(maxPerProfile);
+            }
+        }
+        // Engines released between the first pass and the closed flag taking effect
+        disposeIdle();
+        if (stuck > 0) {
+            System.err.println("[TesseractPool] " + stuck + " engine(s) still in use after "
+                    + shutdownWaitMs + " ms, leaving them to process exit");
+        }
+    }
+
+    private void disposeIdle() {
+        for (ProfilePool pool : pools.values()) {
+            PooledTesseract engine;
+            while ((engine = pool.idle.poll()) != null) {
+                engine.shutdown();
+                engineSlots.release();
+            }
+        }
+    }
+
+    /**
+     * Take a global engine slot for a new engine of this profile, shutting
+     * down idle engines of other profiles if the limit is reached.
+     */
+    private void reserveEngineSlot(Profile profile, long deadline) throws TesseractException {
+        try {
+            while (!engineSlots.tryAcquire()) {
+                if (evictIdle(profile)) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TesseractException("No OCR engine slot available for profile " + profile
+                            + " (" + maxEngines + " engines loaded)");
+                }
+                if (engineSlots.tryAcquire(Math.min(remaining, SLOT_POLL_NANOS), TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for OCR engine");
+        }
+    }
+
+    private boolean evictIdle(Profile requesting) {
+        for (Map.Entry<Profile, ProfilePool> entry : pools.entrySet()) {
+            if (entry.getKey() == requesting) {
+                continue;
+            }
+            PooledTesseract engine = entry.getValue().idle.poll();
+            if (engine != null) {
+                engine.shutdown();
+                engineSlots.release();
+                evictions.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PooledTesseract create(Profile profile) {
+        PooledTesseract t = new PooledTesseract(profile);
+        t.setDatapath(dataPath);
+        t.setLanguage("eng");
+
+        switch (profile) {
+            case ROI:
+                // Page segmentation mode 7: single line of text
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_ROI);
+                return t;
+
+            case ROI_NAME:
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_ROI_NAME);
+                return t;
+
+            case ROI_ID:
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_ROI_ID);
+                return t;
+
+            case ROI_DATE:
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_ROI_DATE);
+                return t;
+
+            case ROI_BLOCK:
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_BLOCK);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_ROI);
+                return t;
+
+            case MULTIPASS:
+                t.setOcrEngineMode(ITessAPI.TessOcrEngineMode.OEM_LSTM_ONLY);
+                t.setTessVariable("user_defined_dpi", "300");
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_WIDE_PUNCT);
+                return t;
+
+            default:
+                break;
+        }
+
+        t.setOcrEngineMode(ITessAPI.TessOcrEngineMode.OEM_LSTM_ONLY);
+        // Set DPI for better OCR (prevents "Invalid resolution 0 dpi" warning)
+        t.setTessVariable("user_defined_dpi", "300");
+        t.setTessVariable("preserve_interword_spaces", "1");
+
+        switch (profile) {
+            case NAME:
+                // Name lines are always single-line uppercase
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_NAME);
+                break;
+            case NUMERIC:
+                // Numeric ID numbers, allow hyphens
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_NUMERIC);
+                break;
+            case DOB:
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_DOB);
+                break;
+            case LINE:
+                // Single line – good for ID numbers / DOB fields
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_LINE);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_WIDE);
+                break;
+            default:
+                // Single block of text – good for name blocks / full card
+                t.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_BLOCK);
+                t.setTessVariable("tessedit_char_whitelist", WHITELIST_WIDE);
+                break;
+        }
+        return t;
+    }
+
+    private static class ProfilePool {
+        final BlockingQueue<PooledTesseract> idle = new LinkedBlockingQueue<>();
+        final Semaphore permits;
+        final AtomicLong borrows = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+
+        ProfilePool(int size) {
+            this.permits = new Semaphore(size, true);
+        }
+
+        int inUse(int size) {
+            return size - permits.availablePermits();
+        }
+    }
+
+    /**
+     * Tesseract that initializes its native handle on first use and keeps it
+     * until {@link #shutdown()}, instead of creating and deleting it around
+     * every doOCR / getWords call.
+     */
+    private static class PooledTesseract extends Tesseract {
+        final Profile profile;
+        private boolean initialized;
+
+        PooledTesseract(Profile profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        protected void init() {
+            if (!initialized) {
+                super.init();
+                initialized = true;
+            }
+        }
+
+        @Override
+        protected void dispose() {
+            // keep the engine loaded for the next borrower
+        }
+
+        int meanConfidence() {
+            if (!initialized) {
+                return -1;
+            }
+            return getAPI().TessBaseAPIMeanTextConf(getHandle());
+        }
+
+        void shutdown() {
+            if (initialized) {
+                super.dispose();
+                initialized = false;
+            }
+        }
+    }
+}
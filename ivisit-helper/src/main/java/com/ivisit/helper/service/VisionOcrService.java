@@ -0,0 +1,258 @@
+package com.ivisit.helper.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivisit.helper.config.RemoteHttpConfig;
+import com.ivisit.helper.utils.ImagePreprocessor;
+import com.ivisit.helper.utils.RemoteImageEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * AI Vision-based OCR client using OpenRouter API.
+ * Provides accurate ID extraction using Claude/GPT vision models.
+ */
+@Service
+public class VisionOcrService implements MeterBinder {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    // Stands in for the Base64 image while the rest of the request is serialized
+    private static final String IMAGE_PLACEHOLDER = "__IVISIT_IMAGE__";
+
+    private final String apiKey;
+    private final String apiUrl;
+    private final String model;
+    private final String httpReferer;
+    private final int maxDimension;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate;
+    private final RemoteCallGuard guard;
+
+    public VisionOcrService(
+            CloseableHttpClient remoteOcrHttpClient,
+            ObjectMapper objectMapper,
+            @Value("${openrouter.api.key}") String apiKey,
+            @Value("${openrouter.api.url}") String apiUrl,
+            @Value("${openrouter.model}") String model,
+            @Value("${app.http.referer:https://ivisitust.com}") String httpReferer,
+            @Value("${openrouter.image.max-dimension:1600}") int maxDimension,
+            @Value("${openrouter.http.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${openrouter.http.read-timeout-ms:20000}") int readTimeoutMs,
+            @Value("${openrouter.max-concurrent:4}") int maxConcurrent,
+            @Value("${ocr.remote.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ocr.remote.breaker.open-ms:30000}") long openMs
+    ) {
+        this.apiKey = apiKey;
+        this.apiUrl = apiUrl;
+        this.model = model;
+        this.httpReferer = httpReferer;
+        this.maxDimension = maxDimension;
+        this.objectMapper = objectMapper;
+        this.restTemplate = RemoteHttpConfig.restTemplate(
+                remoteOcrHttpClient, connectTimeoutMs, readTimeoutMs, connectTimeoutMs);
+        this.guard = new RemoteCallGuard("OpenRouter", failureThreshold, openMs, maxConcurrent);
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.trim().isEmpty();
+    }
+
+    public RemoteCallGuard getCallGuard() {
+        return guard;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        guard.bindTo(registry);
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Ask the vision model for the ID fields of the uploaded image.
+     * The map has "method", "model" and, when the reply parsed, "fields".
+     */
+    public Map<String, Object> recognize(MultipartFile file) throws Exception {
+        return recognize(file, null);
+    }
+
+    /**
+     * Same as {@link #recognize(MultipartFile)} for an upload the caller has
+     * already decoded, so the image is not decoded twice.
+     */
+    public Map<String, Object> recognize(MultipartFile file, BufferedImage decoded) throws Exception {
+        String prompt = "Analyze this Philippine ID card image and extract the following information. " +
+                "Return ONLY a JSON object with these exact fields (use empty string if not found): " +
+                "{ \"fullName\": \"extracted full name\", \"idNumber\": \"extracted ID number\", " +
+                "\"dob\": \"date of birth in YYYY-MM-DD format\", \"address\": \"extracted address\", " +
+                "\"idType\": \"type of ID (e.g. Driver's License, SSS ID, National ID, UMID)\", " +
+                "\"gender\": \"Male or Female based on SEX/M/F field on ID\" } " +
+                "Important: For names, use format FIRSTNAME MIDDLENAME LASTNAME. " +
+                "For dates, convert to YYYY-MM-DD format. " +
+                "For gender, look for SEX field or M/F indicator and return 'Male' or 'Female'. " +
+                "Extract the ID/License number exactly as shown. Only return the JSON, no other text.";
+
+        BufferedImage image = decoded;
+        if (image == null) {
+            try (InputStream in = file.getInputStream()) {
+                image = ImagePreprocessor.readForOcr(in);
+            }
+        }
+
+        // Re-encode as a bounded JPEG; images ImageIO cannot read go out as uploaded
+        BufferedImage upload = image != null ? RemoteImageEncoder.fitRgb(image, maxDimension) : null;
+        String mimeType = upload != null ? "image/jpeg"
+                : file.getContentType() != null ? file.getContentType() : "image/jpeg";
+
+        return callOpenRouterVision(file, upload, mimeType, prompt);
+    }
+
+    private Map<String, Object> callOpenRouterVision(MultipartFile file, BufferedImage upload,
+            String mimeType, String prompt) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("HTTP-Referer", httpReferer);
+        headers.set("X-Title", "iVisit ID Scanner");
+
+        List<Map<String, Object>> messageContent = new ArrayList<>();
+
+        Map<String, Object> textPart = new HashMap<>();
+        textPart.put("type", "text");
+        textPart.put("text", prompt);
+        messageContent.add(textPart);
+
+        Map<String, Object> imagePart = new HashMap<>();
+        imagePart.put("type", "image_url");
+        Map<String, String> imageUrl = new HashMap<>();
+        imageUrl.put("url", "data:" + mimeType + ";base64," + IMAGE_PLACEHOLDER);
+        imagePart.put("image_url", imageUrl);
+        messageContent.add(imagePart);
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+        Map<String, Object> userMessage = new HashMap<>();
+        userMessage.put("role", "user");
+        userMessage.put("content", messageContent);
+        messages.add(userMessage);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", messages);
+        requestBody.put("max_tokens", 500);
+
+        // Serialize everything but the image, then stream the Base64 image
+        // into the gap left by the placeholder
+        String json = objectMapper.writeValueAsString(requestBody);
+        int gap = json.indexOf(IMAGE_PLACEHOLDER);
+        byte[] head = json.substring(0, gap).getBytes(StandardCharsets.UTF_8);
+        byte[] tail = json.substring(gap + IMAGE_PLACEHOLDER.length()).getBytes(StandardCharsets.UTF_8);
+
+        StreamingHttpOutputMessage.Body body = out -> {
+            out.write(head);
+            try (OutputStream base64 = RemoteImageEncoder.base64(out)) {
+                if (upload != null) {
+                    RemoteImageEncoder.writeJpeg(upload, JPEG_QUALITY, base64);
+                } else {
+                    try (InputStream in = file.getInputStream()) {
+                        RemoteImageEncoder.copy(in, base64);
+                    }
+                }
+            }
+            out.write(tail);
+        };
+
+        ResponseEntity<Map> apiResponse = guard.call(() -> restTemplate.execute(apiUrl, HttpMethod.POST,
+                RemoteHttpConfig.streamingRequest(headers, body),
+                restTemplate.<Map>responseEntityExtractor(Map.class)));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("method", "vision");
+        result.put("model", model);
+
+        if (apiResponse.getBody() != null) {
+            try {
+                List<Map<String, Object>> choices = (List<Map<String, Object>>) apiResponse.getBody().get("choices");
+                if (choices != null && !choices.isEmpty()) {
+                    Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+                    String content = (String) message.get("content");
+
+                    result.put("rawResponse", content);
+
+                    // Extract JSON from response (handle markdown code blocks)
+                    String jsonStr = extractJson(content);
+                    if (jsonStr != null) {
+                        result.put("fields", parseSimpleJson(jsonStr));
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Error parsing OpenRouter response: " + e.getMessage());
+                result.put("error", "Failed to parse response");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Extract JSON from response (handles markdown code blocks)
+     */
+    private String extractJson(String content) {
+        if (content == null)
+            return null;
+
+        // Remove markdown code blocks if present
+        content = content.trim();
+        if (content.startsWith("```json")) {
+            content = content.substring(7);
+        } else if (content.startsWith("```")) {
+            content = content.substring(3);
+        }
+        if (content.endsWith("```")) {
+            content = content.substring(0, content.length() - 3);
+        }
+
+        // Find JSON object
+        int start = content.indexOf('{');
+        int end = content.lastIndexOf('}');
+        if (start >= 0 && end > start) {
+            return content.substring(start, end + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Simple JSON parser for the expected structure
+     */
+    private Map<String, String> parseSimpleJson(String json) {
+        Map<String, String> result = new HashMap<>();
+        String[] fields = { "fullName", "idNumber", "dob", "address", "idType", "gender" };
+
+        for (String field : fields) {
+            String pattern = "\"" + field + "\"\\s*:\\s*\"([^\"]*)\"";
+            java.util.regex.Pattern p = java.util.regex.Pattern.compile(pattern);
+            java.util.regex.Matcher m = p.matcher(json);
+            if (m.find()) {
+                result.put(field, m.group(1));
+            } else {
+                result.put(field, "");
+            }
+        }
+
+        return result;
+    }
+}
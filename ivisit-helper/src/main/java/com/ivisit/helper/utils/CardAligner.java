@@ -0,0 +1,322 @@
+package com.ivisit.helper.utils;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+/**
+ * Finds the ID card in a capture, straightens it and crops to it, so ROI
+ * template percentages land on the card rather than on the whole frame.
+ *
+ * Detection runs on a small grayscale copy: Otsu splits card from
+ * background, the largest connected region of either class that does not
+ * fill the frame and has a card-like aspect ratio is taken as the card,
+ * and the skew angle is the median slope (Theil-Sen) of its top and bottom
+ * edges. When nothing card-like is found, or the card already fills the
+ * frame, the image is returned unchanged.
+ */
+public class CardAligner {
+
+    // Width of the copy used for detection
+    private static final int WORK_WIDTH = 400;
+
+    // Skew below this is left alone; above the max it is probably a misdetection
+    private static final double MIN_DESKEW_DEGREES = 0.5;
+    private static final double MAX_DESKEW_DEGREES = 15.0;
+
+    // The card must cover at least this share of the frame
+    private static final double MIN_AREA_FRACTION = 0.20;
+
+    // Landscape ID-1 cards are 1.586:1; leave room for perspective and margins
+    private static final double MIN_ASPECT = 1.2;
+    private static final double MAX_ASPECT = 2.2;
+
+    // Margin kept around the detected card, as a fraction of its size
+    private static final double CROP_MARGIN = 0.01;
+
+    /**
+     * The card region of the image, deskewed, or the image itself when no
+     * card boundary can be found.
+     */
+    public static BufferedImage align(BufferedImage src) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        double scale = Math.min(1.0, (double) WORK_WIDTH / width);
+        int sw = Math.max(1, (int) Math.round(width * scale));
+        int sh = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage small = new BufferedImage(sw, sh, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = small.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, sw, sh, null);
+        g.dispose();
+        byte[] pixels = ((DataBufferByte) small.getRaster().getDataBuffer()).getData();
+
+        Card card = findCard(pixels, sw, sh);
+        if (card == null) {
+            return src;
+        }
+
+        double angle = card.skewRadians();
+        double degrees = Math.abs(Math.toDegrees(angle));
+        boolean deskew = degrees >= MIN_DESKEW_DEGREES && degrees <= MAX_DESKEW_DEGREES;
+
+        // Card bounds in the (possibly rotated) small frame
+        double[] box = deskew
+                ? card.rotatedBounds(-angle, sw / 2.0, sh / 2.0)
+                : new double[]{card.minX, card.minY, card.maxX + 1, card.maxY + 1};
+        if (!deskew && card.fillsFrame(sw, sh)) {
+            return src;
+        }
+
+        BufferedImage base = deskew ? rotate(src, -angle) : src;
+
+        double marginX = (box[2] - box[0]) * CROP_MARGIN;
+        double marginY = (box[3] - box[1]) * CROP_MARGIN;
+        int x0 = clamp((int) Math.floor((box[0] - marginX) / scale), 0, width - 1);
+        int y0 = clamp((int) Math.floor((box[1] - marginY) / scale), 0, height - 1);
+        int x1 = clamp((int) Math.ceil((box[2] + marginX) / scale), x0 + 1, width);
+        int y1 = clamp((int) Math.ceil((box[3] + marginY) / scale), y0 + 1, height);
+        return base.getSubimage(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    /**
+     * Largest card-like region of either Otsu class, or null.
+     */
+    private static Card findCard(byte[] pixels, int width, int height) {
+        int[] histogram = new int[256];
+        for (byte p : pixels) {
+            histogram[p & 0xFF]++;
+        }
+        int threshold = ImagePreprocessor.otsuThreshold(histogram, pixels.length);
+
+        int[] labels = new int[pixels.length];
+        int[] queue = new int[pixels.length];
+        Card best = null;
+
+        // Bright cards on dark desks are the usual case, so try bright first
+        for (int pass = 0; pass < 2; pass++) {
+            boolean bright = pass == 0;
+            Arrays.fill(labels, 0);
+            int label = 0;
+
+            for (int start = 0; start < pixels.length; start++) {
+                if (labels[start] != 0 || ((pixels[start] & 0xFF) > threshold) != bright) {
+                    continue;
+                }
+
+                Card region = flood(pixels, width, height, threshold, bright, start, ++label, labels, queue);
+                if (region.area >= MIN_AREA_FRACTION * pixels.length
+                        && !region.touchesAllBorders(width, height)
+                        && region.hasCardAspect()
+                        && (best == null || region.area > best.area)) {
+                    region.edges(labels, width);
+                    best = region;
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 4-connected flood fill of one class from start, labelling as it goes.
+     */
+    private static Card flood(byte[] pixels, int width, int height, int threshold, boolean bright,
+            int start, int label, int[] labels, int[] queue) {
+        Card card = new Card(label);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        labels[start] = label;
+
+        while (head < tail) {
+            int i = queue[head++];
+            int x = i % width;
+            int y = i / width;
+            card.add(x, y);
+
+            if (x > 0) tail = visit(pixels, threshold, bright, i - 1, label, labels, queue, tail);
+            if (x < width - 1) tail = visit(pixels, threshold, bright, i + 1, label, labels, queue, tail);
+            if (y > 0) tail = visit(pixels, threshold, bright, i - width, label, labels, queue, tail);
+            if (y < height - 1) tail = visit(pixels, threshold, bright, i + width, label, labels, queue, tail);
+        }
+        return card;
+    }
+
+    private static int visit(byte[] pixels, int threshold, boolean bright, int i, int label,
+            int[] labels, int[] queue, int tail) {
+        if (labels[i] == 0 && ((pixels[i] & 0xFF) > threshold) == bright) {
+            labels[i] = label;
+            queue[tail++] = i;
+        }
+        return tail;
+    }
+
+    private static BufferedImage rotate(BufferedImage src, double radians) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        int type = src.getType() == BufferedImage.TYPE_BYTE_GRAY
+                ? BufferedImage.TYPE_BYTE_GRAY
+                : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage rotated = new BufferedImage(width, height, type);
+        Graphics2D g = rotated.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, AffineTransform.getRotateInstance(radians, width / 2.0, height / 2.0), null);
+        g.dispose();
+        return rotated;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * A connected region: bounds, area, and its top and bottom edge per column.
+     */
+    private static class Card {
+        final int label;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = -1;
+        int maxY = -1;
+        int area;
+        int[] top;
+        int[] bottom;
+
+        Card(int label) {
+            this.label = label;
+        }
+
+        void add(int x, int y) {
+            area++;
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
+
+        boolean touchesAllBorders(int width, int height) {
+            return minX == 0 && minY == 0 && maxX == width - 1 && maxY == height - 1;
+        }
+
+        boolean fillsFrame(int width, int height) {
+            return (maxX - minX + 1) >= width * 0.97 && (maxY - minY + 1) >= height * 0.97;
+        }
+
+        boolean hasCardAspect() {
+            double aspect = (double) (maxX - minX + 1) / (maxY - minY + 1);
+            return aspect >= MIN_ASPECT && aspect <= MAX_ASPECT;
+        }
+
+        /**
+         * Topmost and bottommost pixel of this region in each column of its bounds.
+         */
+        void edges(int[] labels, int width) {
+            int columns = maxX - minX + 1;
+            top = new int[columns];
+            bottom = new int[columns];
+            Arrays.fill(top, -1);
+            Arrays.fill(bottom, -1);
+            for (int y = minY; y <= maxY; y++) {
+                int row = y * width;
+                for (int x = minX; x <= maxX; x++) {
+                    if (labels[row + x] == label) {
+                        int c = x - minX;
+                        if (top[c] < 0) top[c] = y;
+                        bottom[c] = y;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Skew of the card, from the top and bottom edges over the middle of
+         * the card (the corners are often rounded or shadowed).
+         */
+        double skewRadians() {
+            double topSlope = medianSlope(top);
+            double bottomSlope = medianSlope(bottom);
+            if (Double.isNaN(topSlope)) return Double.isNaN(bottomSlope) ? 0 : Math.atan(bottomSlope);
+            if (Double.isNaN(bottomSlope)) return Math.atan(topSlope);
+
+            double a = Math.atan(topSlope);
+            double b = Math.atan(bottomSlope);
+            // Edges that disagree mean one is occluded; trust the flatter one
+            if (Math.abs(a - b) > Math.toRadians(2)) {
+                return Math.abs(a) < Math.abs(b) ? a : b;
+            }
+            return (a + b) / 2;
+        }
+
+        /**
+         * Bounds of the region after rotating it about (cx, cy), as
+         * {minX, minY, maxX, maxY}. Only the top and bottom edge points need
+         * rotating, since they hold the extremes of every column.
+         */
+        double[] rotatedBounds(double radians, double cx, double cy) {
+            double cos = Math.cos(radians);
+            double sin = Math.sin(radians);
+            double[] box = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+            for (int c = 0; c < top.length; c++) {
+                if (top[c] < 0) continue;
+                double x = minX + c + 0.5;
+                extend(box, x, top[c], cos, sin, cx, cy);
+                extend(box, x, bottom[c] + 1, cos, sin, cx, cy);
+            }
+            return box;
+        }
+
+        private static void extend(double[] box, double x, double y, double cos, double sin,
+                double cx, double cy) {
+            double dx = x - cx;
+            double dy = y - cy;
+            double rx = cx + dx * cos - dy * sin;
+            double ry = cy + dx * sin + dy * cos;
+            if (rx < box[0]) box[0] = rx;
+            if (ry < box[1]) box[1] = ry;
+            if (rx > box[2]) box[2] = rx;
+            if (ry > box[3]) box[3] = ry;
+        }
+
+        /**
+         * Theil-Sen slope over the middle 60% of the columns, NaN if too few.
+         */
+        private static double medianSlope(int[] edge) {
+            int from = edge.length / 5;
+            int to = edge.length - from;
+            int step = Math.max(1, (to - from) / 60);
+
+            int count = 0;
+            int[] xs = new int[(to - from) / step + 1];
+            int[] ys = new int[xs.length];
+            for (int c = from; c < to; c += step) {
+                if (edge[c] >= 0) {
+                    xs[count] = c;
+                    ys[count] = edge[c];
+                    count++;
+                }
+            }
+            if (count < 5) {
+                return Double.NaN;
+            }
+
+            double[] slopes = new double[count * (count - 1) / 2];
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    slopes[n++] = (double) (ys[j] - ys[i]) / (xs[j] - xs[i]);
+                }
+            }
+            Arrays.sort(slopes, 0, n);
+            return slopes[n / 2];
+        }
+    }
+}
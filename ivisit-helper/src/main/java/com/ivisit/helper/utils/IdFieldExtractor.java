@@ -0,0 +1,199 @@
+package com.ivisit.helper.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses structured ID fields (idNumber, idType, fullName, dob) out of raw
+ * OCR text. Shared by the OCR.space endpoint and the smart OCR orchestrator.
+ *
+ * All patterns are compiled once. The text is normalized in a single pass
+ * into the variants the rules match against, and ID numbers are found by
+ * walking an ordered rule table; an ID type hint moves that type's rules
+ * to the front.
+ */
+public class IdFieldExtractor {
+
+    /** Which normalized form of the text a rule is matched against */
+    private enum Source {
+        /** Text as received */
+        RAW,
+        /** Whitespace removed */
+        COMPACT,
+        /** Letter o/O read as zero */
+        ZEROED
+    }
+
+    /**
+     * One ID number format. The matched groups are joined with "-".
+     */
+    private static class IdNumberRule {
+        final String idType;
+        final Pattern pattern;
+        final Source source;
+
+        IdNumberRule(String idType, String regex, Source source) {
+            this.idType = idType;
+            this.pattern = Pattern.compile(regex);
+            this.source = source;
+        }
+    }
+
+    private static final IdNumberRule PHILHEALTH =
+            new IdNumberRule("PhilHealth ID", "(\\d{2})[-\\s]?(\\d{9})[-\\s]?(\\d)", Source.COMPACT);
+    private static final IdNumberRule SSS =
+            new IdNumberRule("SSS ID", "(\\d{2})[-\\s]?(\\d{7})[-\\s]?(\\d)", Source.COMPACT);
+    // National ID, PSN format first
+    private static final IdNumberRule PSN = new IdNumberRule("National ID",
+            "(?:PSN[-–\\s]*)?([\\dO]{4})[-–\\s]?([\\dO]{3,4})[-–\\s]?([\\dO]{4})[-–\\s]?([\\dO]{1,4})",
+            Source.ZEROED);
+    private static final IdNumberRule NATIONAL =
+            new IdNumberRule("National ID", "(\\d{4})[-\\s]?(\\d{4})[-\\s]?(\\d{4})[-\\s]?(\\d{4})", Source.RAW);
+    // LTO license number, e.g. N01-23-456789
+    private static final IdNumberRule DRIVERS_LICENSE =
+            new IdNumberRule("Driver's License", "\\b([A-Z]\\d{2})[-\\s]?(\\d{2})[-\\s]?(\\d{6})\\b", Source.RAW);
+    // UMID common reference number, e.g. 0028-1234567-8
+    private static final IdNumberRule UMID =
+            new IdNumberRule("UMID", "(\\d{4})[-\\s]?(\\d{7})[-\\s]?(\\d)", Source.COMPACT);
+
+    /** Rules tried when no ID type is known, in priority order */
+    private static final List<IdNumberRule> DEFAULT_RULES =
+            Collections.unmodifiableList(Arrays.asList(PHILHEALTH, SSS, PSN, NATIONAL));
+
+    /** Rules tried first for a given ID type (lowercase, as sent by the frontend) */
+    private static final Map<String, List<IdNumberRule>> RULES_BY_TYPE;
+
+    static {
+        Map<String, List<IdNumberRule>> byType = new HashMap<>();
+        byType.put("philhealth id", Collections.singletonList(PHILHEALTH));
+        byType.put("philhealth", Collections.singletonList(PHILHEALTH));
+        byType.put("sss id", Collections.singletonList(SSS));
+        byType.put("national id", Collections.unmodifiableList(Arrays.asList(PSN, NATIONAL)));
+        byType.put("philsys", Collections.unmodifiableList(Arrays.asList(PSN, NATIONAL)));
+        byType.put("driver's license", Collections.singletonList(DRIVERS_LICENSE));
+        byType.put("drivers license", Collections.singletonList(DRIVERS_LICENSE));
+        byType.put("umid", Collections.singletonList(UMID));
+        RULES_BY_TYPE = Collections.unmodifiableMap(byType);
+    }
+
+    // Candidate name line: uppercase letters and name punctuation only
+    private static final Pattern NAME_LINE = Pattern.compile("[A-Z\\s,.-]+");
+
+    // Card labels, agencies and places that look like uppercase names
+    private static final Pattern NOT_A_NAME = Pattern.compile(
+            "REPUBLIC|PILIPINAS|PHILIPPINES|PHILHEALTH|PAMBANSANG|PAGKAKAKILANLAN|DEPARTMENT|"
+                    + "NATIONAL|IDENTIFICATION|APELYIDO|PANGALAN|GITNANG|TIRAHAN|PETSA|KAPANGANAKAN|"
+                    + "KASARIAN|KATAYUANG|DUGO|NAME|DATE|BIRTH|ADDRESS|SECURITY|SOCIAL|SYSTEM|BRGY|"
+                    + "BARANGAY|METRO|MANILA|CITY|QUEZON|MAKATI|PASIG|STATUS|SINGLE|MARRIED|MALE|"
+                    + "FEMALE|PHL|PSN|SAMPLE|PROUD|FILIPINO|SSS|CORAZON|MEMBER");
+
+    private static final Pattern DATE = Pattern.compile(
+            "(\\d{4})[/-](\\d{2})[/-](\\d{2})|" // YYYY-MM-DD
+                    + "(\\d{2})[/-](\\d{2})[/-](\\d{4})|" // MM-DD-YYYY
+                    + "(JANUARY|FEBRUARY|MARCH|APRIL|MAY|JUNE|JULY|AUGUST|SEPTEMBER|OCTOBER|NOVEMBER|DECEMBER)"
+                    + "\\s+(\\d{1,2}),?\\s+(\\d{4})", // Month DD, YYYY
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Extract structured fields from OCR text
+     * Looks for common ID patterns
+     */
+    public static Map<String, String> extract(String text) {
+        return extract(text, null);
+    }
+
+    /**
+     * Same as {@link #extract(String)}, but the ID number rules of idType
+     * (e.g. "SSS ID") are tried before the default ones.
+     */
+    public static Map<String, String> extract(String text, String idType) {
+        Map<String, String> fields = new HashMap<>();
+        if (text == null || text.isEmpty()) {
+            return fields;
+        }
+
+        // One pass builds every normalized form the rules need
+        StringBuilder compact = new StringBuilder(text.length());
+        StringBuilder zeroed = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isRegexSpace(c)) {
+                compact.append(c);
+            }
+            zeroed.append(c == 'o' || c == 'O' ? '0' : c);
+        }
+
+        for (IdNumberRule rule : rulesFor(idType)) {
+            CharSequence input = rule.source == Source.COMPACT ? compact
+                    : rule.source == Source.ZEROED ? zeroed
+                    : text;
+            Matcher m = rule.pattern.matcher(input);
+            if (m.find()) {
+                StringBuilder id = new StringBuilder(m.group(1));
+                for (int g = 2; g <= m.groupCount(); g++) {
+                    id.append('-').append(m.group(g));
+                }
+                fields.put("idNumber", id.toString());
+                fields.put("idType", rule.idType);
+                break;
+            }
+        }
+
+        String fullName = findName(text);
+        if (fullName != null) {
+            fields.put("fullName", fullName);
+        }
+
+        Matcher dateMatcher = DATE.matcher(text);
+        if (dateMatcher.find()) {
+            fields.put("dob", dateMatcher.group());
+        }
+
+        return fields;
+    }
+
+    /**
+     * Joins every uppercase line that looks like part of a name.
+     */
+    private static String findName(String text) {
+        StringBuilder nameBuilder = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.length() >= 3 && trimmed.length() <= 40
+                    && NAME_LINE.matcher(trimmed).matches()
+                    && !NOT_A_NAME.matcher(trimmed).find()) {
+                if (nameBuilder.length() > 0) {
+                    nameBuilder.append(" ");
+                }
+                nameBuilder.append(trimmed);
+            }
+        }
+        return nameBuilder.length() > 0 ? nameBuilder.toString() : null;
+    }
+
+    private static List<IdNumberRule> rulesFor(String idType) {
+        List<IdNumberRule> preferred = idType != null ? RULES_BY_TYPE.get(idType.toLowerCase()) : null;
+        if (preferred == null) {
+            return DEFAULT_RULES;
+        }
+
+        List<IdNumberRule> rules = new ArrayList<>(preferred);
+        for (IdNumberRule rule : DEFAULT_RULES) {
+            if (!rules.contains(rule)) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    // Characters matched by \s in java.util.regex
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
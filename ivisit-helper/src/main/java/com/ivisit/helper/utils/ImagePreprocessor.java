@@ -1,79 +1,194 @@
 package com.ivisit.helper.utils;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.awt.image.ConvolveOp;
-import java.awt.image.Kernel;
-import java.awt.image.RescaleOp;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Image preprocessing for OCR accuracy improvement.
  * Enhanced pipeline with advanced techniques for better text extraction.
  *
- * Pipeline: Denoise → Grayscale → Sharpen → Adaptive Contrast → Binarize →
- * Resize
+ * Pipeline: Rescale + Grayscale → Denoise → Sharpen → Adaptive Contrast →
+ * Binarize
+ *
+ * Inputs are brought to OCR resolution first: small scans are upscaled,
+ * oversized photos are subsampled while decoding (readForOcr) and
+ * area-averaged down, so every later stage runs at about TARGET_WIDTH.
+ *
+ * Everything after the first grayscale conversion works directly on the
+ * byte[] of TYPE_BYTE_GRAY rasters, so a stage does not need an extra
+ * BufferedImage or an RGB round trip.
+ *
+ * Pixel stages run over horizontal tiles of TILE_ROWS rows. Large images
+ * spread the tiles over a fork/join pool; each tile writes only its own
+ * rows and reads neighbours from the unmodified source, so the result is
+ * the same as running the tiles one after another.
  */
 public class ImagePreprocessor {
 
     // Target resolution for OCR (higher = better accuracy but slower)
     private static final int TARGET_WIDTH = 1600;
 
+    // Inputs wider than this are area-averaged down to TARGET_WIDTH first
+    private static final int MAX_WIDTH = TARGET_WIDTH * 5 / 4;
+
+    // Rows per tile of the fused denoise/sharpen pass
+    private static final int TILE_ROWS = 64;
+
+    // Images smaller than this are processed on the calling thread
+    private static final int PARALLEL_MIN_PIXELS = 1_000_000;
+
+    private static final ForkJoinPool TILE_POOL =
+            new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    // Per-thread scratch band for the fused pass, reused across calls
+    private static final ThreadLocal<byte[]> BAND_BUFFER = new ThreadLocal<>();
+
+    /**
+     * Standard pipeline: one scaled grayscale draw, then denoise and sharpen
+     * fused in a single tiled pass, then contrast applied in place.
+     */
     public static BufferedImage preprocess(BufferedImage input) {
-        BufferedImage upscaled = upscaleIfNeeded(input, TARGET_WIDTH);
-        BufferedImage denoised = denoise(upscaled);
-        BufferedImage gray = toGrayscale(denoised);
-        BufferedImage sharpened = sharpen(gray);
-        BufferedImage contrasted = adaptiveContrast(sharpened);
-        return resize(contrasted, TARGET_WIDTH);
+        BufferedImage gray = toOcrResolution(input);
+        return denoiseSharpenContrast(gray);
     }
 
-    private static BufferedImage upscaleIfNeeded(BufferedImage input, int targetWidth) {
-        if (input.getWidth() >= targetWidth) {
-            return input;
+    /**
+     * Decode an upload for OCR. Large images are subsampled by the decoder
+     * (by a whole factor that keeps them at least TARGET_WIDTH wide), so a
+     * 12MP photo never exists in memory at full size. Returns null when no
+     * reader understands the data, like ImageIO.read.
+     */
+    public static BufferedImage readForOcr(InputStream in) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int factor = reader.getWidth(0) / TARGET_WIDTH;
+                if (factor >= 2) {
+                    param.setSourceSubsampling(factor, factor, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Grayscale copy of the input at OCR resolution: upscaled to
+     * TARGET_WIDTH when smaller, area-averaged down to it when wider than
+     * MAX_WIDTH, otherwise kept at its own size.
+     */
+    private static BufferedImage toOcrResolution(BufferedImage input) {
+        if (input.getWidth() <= MAX_WIDTH) {
+            return toGrayscaleScaled(input, TARGET_WIDTH);
         }
 
-        double scale = (double) targetWidth / input.getWidth();
-        int newWidth = targetWidth;
+        BufferedImage gray = input.getType() == BufferedImage.TYPE_BYTE_GRAY ? input : toGrayscale(input);
+        int newHeight = Math.max(1, (int) ((long) input.getHeight() * TARGET_WIDTH / input.getWidth()));
+        return areaAverage(grayPixels(gray), input.getWidth(), input.getHeight(), TARGET_WIDTH, newHeight);
+    }
+
+    /**
+     * Downscale by exact area averaging: every output pixel is the mean of
+     * the source area it covers, partial pixels weighted by coverage.
+     * Works one output row at a time, so the only scratch memory is two rows.
+     */
+    private static BufferedImage areaAverage(byte[] src, int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+        BufferedImage result = new BufferedImage(dstWidth, dstHeight, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(result);
+
+        double scaleX = (double) srcWidth / dstWidth;
+        double scaleY = (double) srcHeight / dstHeight;
+        float[] row = new float[dstWidth];
+        float[] acc = new float[dstWidth];
+        float norm = (float) (1.0 / (scaleX * scaleY));
+
+        for (int dy = 0; dy < dstHeight; dy++) {
+            double top = dy * scaleY;
+            double bottom = Math.min(srcHeight, top + scaleY);
+            Arrays.fill(acc, 0f);
+
+            for (int sy = (int) top; sy < bottom; sy++) {
+                float weightY = (float) (Math.min(sy + 1, bottom) - Math.max(sy, top));
+                if (weightY <= 0f) {
+                    continue;
+                }
+                averageRow(src, sy * srcWidth, srcWidth, scaleX, row);
+                for (int dx = 0; dx < dstWidth; dx++) {
+                    acc[dx] += weightY * row[dx];
+                }
+            }
+
+            int out = dy * dstWidth;
+            for (int dx = 0; dx < dstWidth; dx++) {
+                int v = Math.round(acc[dx] * norm);
+                dst[out + dx] = (byte) (v > 255 ? 255 : v);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Horizontal pass of areaAverage: coverage-weighted sums of one source row.
+     */
+    private static void averageRow(byte[] src, int offset, int srcWidth, double scaleX, float[] row) {
+        for (int dx = 0; dx < row.length; dx++) {
+            double left = dx * scaleX;
+            double right = Math.min(srcWidth, left + scaleX);
+            float sum = 0f;
+            for (int sx = (int) left; sx < right; sx++) {
+                float weightX = (float) (Math.min(sx + 1, right) - Math.max(sx, left));
+                sum += weightX * (src[offset + sx] & 0xFF);
+            }
+            row[dx] = sum;
+        }
+    }
+
+    /**
+     * Grayscale copy of the input, upscaled (bicubic) to at least minWidth
+     * in the same draw. Gray inputs that are already wide enough are
+     * returned as-is; callers never write into the result.
+     */
+    private static BufferedImage toGrayscaleScaled(BufferedImage input, int minWidth) {
+        if (input.getWidth() >= minWidth) {
+            return input.getType() == BufferedImage.TYPE_BYTE_GRAY ? input : toGrayscale(input);
+        }
+
+        double scale = (double) minWidth / input.getWidth();
+        int newWidth = minWidth;
         int newHeight = (int) (input.getHeight() * scale);
 
-        BufferedImage upscaled = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        BufferedImage upscaled = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_BYTE_GRAY);
         Graphics2D g2 = upscaled.createGraphics();
         g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
         g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2.drawImage(input, 0, 0, newWidth, newHeight, null);
         g2.dispose();
 
         return upscaled;
     }
 
-    private static BufferedImage denoise(BufferedImage input) {
-        // Light 3x3 averaging kernel (less aggressive to preserve edges)
-        float weight = 1.0f / 9.0f;
-        float[] kernel = {
-                weight, weight, weight,
-                weight, weight, weight,
-                weight, weight, weight
-        };
-        Kernel blurKernel = new Kernel(3, 3, kernel);
-
-        BufferedImage rgb = toRGB(input);
-        ConvolveOp op = new ConvolveOp(blurKernel, ConvolveOp.EDGE_NO_OP, null);
-
-        return op.filter(rgb, null);
-    }
-
-    private static BufferedImage toRGB(BufferedImage input) {
-        if (input.getType() == BufferedImage.TYPE_INT_RGB) {
-            return input;
-        }
-        BufferedImage rgb = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_INT_RGB);
-        Graphics g = rgb.getGraphics();
-        g.drawImage(input, 0, 0, null);
-        g.dispose();
-        return rgb;
-    }
-
     private static BufferedImage toGrayscale(BufferedImage input) {
         BufferedImage gray = new BufferedImage(
                 input.getWidth(), input.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
@@ -83,40 +198,228 @@ public class ImagePreprocessor {
         return gray;
     }
 
-    private static BufferedImage sharpen(BufferedImage image) {
-        // 3x3 Laplacian sharpening kernel (stronger)
-        float[] kernel = {
-                -0.5f, -1, -0.5f,
-                -1, 7, -1,
-                -0.5f, -1, -0.5f
-        };
-        Kernel sharpenKernel = new Kernel(3, 3, kernel);
+    /**
+     * Light 3x3 averaging (denoise) followed by the 3x3 sharpen kernel and
+     * Otsu-driven contrast stretch. Denoise and sharpen run tile by tile
+     * through a small per-thread band, so the only full-frame allocation is
+     * the output image. The histogram for contrast is collected on the way.
+     */
+    private static BufferedImage denoiseSharpenContrast(BufferedImage gray) {
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        byte[] src = grayPixels(gray);
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(result);
+
+        int[][] tileHistograms = new int[tileCount(height)][];
+        forEachTile(width, height, (yStart, yEnd) -> {
+            int[] histogram = new int[256];
+            denoiseSharpenTile(src, dst, width, height, yStart, yEnd, histogram);
+            tileHistograms[yStart / TILE_ROWS] = histogram;
+        });
+
+        int threshold = otsuThreshold(mergeHistograms(tileHistograms), width * height);
+        byte[] lut = adaptiveContrastLut(threshold);
+        forEachTile(width, height, (yStart, yEnd) ->
+                applyLut(dst, dst, lut, yStart * width, yEnd * width));
+        return result;
+    }
+
+    /**
+     * Rows [yStart, yEnd) of denoise+sharpen. The denoised rows, plus one
+     * halo row above and below for the sharpen kernel, go into the band.
+     */
+    private static void denoiseSharpenTile(byte[] src, byte[] dst, int width, int height,
+            int yStart, int yEnd, int[] histogram) {
+        int bandStart = Math.max(0, yStart - 1);
+        int bandEnd = Math.min(height - 1, yEnd);
+        byte[] band = bandBuffer((bandEnd - bandStart + 1) * width);
+
+        for (int y = bandStart; y <= bandEnd; y++) {
+            denoiseRow(src, band, (y - bandStart) * width, y, width, height);
+        }
 
-        BufferedImage rgb = new BufferedImage(
-                image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-        Graphics2D gRgb = rgb.createGraphics();
-        gRgb.drawImage(image, 0, 0, null);
-        gRgb.dispose();
+        for (int y = yStart; y < yEnd; y++) {
+            int mid = (y - bandStart) * width;
+            sharpenRow(band, mid - width, mid, mid + width, dst, y * width,
+                    width, y == 0 || y == height - 1, histogram);
+        }
+    }
+
+    /**
+     * 3x3 box blur of row y into out. Edge pixels are copied unchanged,
+     * like ConvolveOp.EDGE_NO_OP.
+     */
+    private static void denoiseRow(byte[] src, byte[] out, int outOffset, int y, int width, int height) {
+        int row = y * width;
+        if (y == 0 || y == height - 1 || width < 3) {
+            System.arraycopy(src, row, out, outOffset, width);
+            return;
+        }
+
+        int up = row - width;
+        int down = row + width;
 
-        ConvolveOp op = new ConvolveOp(sharpenKernel, ConvolveOp.EDGE_NO_OP, null);
-        BufferedImage sharpened = op.filter(rgb, null);
+        // Sliding sums of the three columns under the kernel
+        int left = (src[up] & 0xFF) + (src[row] & 0xFF) + (src[down] & 0xFF);
+        int center = (src[up + 1] & 0xFF) + (src[row + 1] & 0xFF) + (src[down + 1] & 0xFF);
 
-        return toGrayscale(sharpened);
+        out[outOffset] = src[row];
+        for (int x = 1; x < width - 1; x++) {
+            int right = (src[up + x + 1] & 0xFF) + (src[row + x + 1] & 0xFF) + (src[down + x + 1] & 0xFF);
+            out[outOffset + x] = (byte) ((left + center + right + 4) / 9);
+            left = center;
+            center = right;
+        }
+        out[outOffset + width - 1] = src[row + width - 1];
     }
 
-    private static int calculateOtsuThreshold(BufferedImage gray) {
-        int width = gray.getWidth();
-        int height = gray.getHeight();
-        int[] histogram = new int[256];
+    /**
+     * 3x3 Laplacian sharpen (-0.5 -1 -0.5 / -1 7 -1 / -0.5 -1 -0.5) of the
+     * row at offset mid, using the rows at up and down as neighbours.
+     * Evaluated at twice the scale to stay in integers. Edge pixels are
+     * copied unchanged. Counts results into histogram when it is not null.
+     */
+    private static void sharpenRow(byte[] in, int up, int mid, int down, byte[] out, int outOffset,
+            int width, boolean edgeRow, int[] histogram) {
+        if (edgeRow || width < 3) {
+            System.arraycopy(in, mid, out, outOffset, width);
+        } else {
+            out[outOffset] = in[mid];
+            for (int x = 1; x < width - 1; x++) {
+                int acc = 14 * (in[mid + x] & 0xFF)
+                        - 2 * ((in[mid + x - 1] & 0xFF) + (in[mid + x + 1] & 0xFF)
+                                + (in[up + x] & 0xFF) + (in[down + x] & 0xFF))
+                        - ((in[up + x - 1] & 0xFF) + (in[up + x + 1] & 0xFF)
+                                + (in[down + x - 1] & 0xFF) + (in[down + x + 1] & 0xFF));
+                int value = (acc + 1) >> 1;
+                out[outOffset + x] = (byte) (value < 0 ? 0 : (value > 255 ? 255 : value));
+            }
+            out[outOffset + width - 1] = in[mid + width - 1];
+        }
 
-        for (int y = 0; y < height; y++) {
+        if (histogram != null) {
             for (int x = 0; x < width; x++) {
-                int pixel = gray.getRaster().getSample(x, y, 0);
-                histogram[pixel]++;
+                histogram[out[outOffset + x] & 0xFF]++;
+            }
+        }
+    }
+
+    private static BufferedImage sharpen(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] src = grayPixels(image);
+        BufferedImage sharpened = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(sharpened);
+
+        forEachTile(width, height, (yStart, yEnd) -> {
+            for (int y = yStart; y < yEnd; y++) {
+                int mid = y * width;
+                sharpenRow(src, mid - width, mid, mid + width, dst, mid,
+                        width, y == 0 || y == height - 1, null);
             }
+        });
+
+        return sharpened;
+    }
+
+    private static byte[] bandBuffer(int size) {
+        byte[] band = BAND_BUFFER.get();
+        if (band == null || band.length < size) {
+            band = new byte[size];
+            BAND_BUFFER.set(band);
         }
+        return band;
+    }
+
+    // ========== TILING ==========
+
+    /**
+     * Work on rows [yStart, yEnd) of an image. Must only write those rows.
+     */
+    private interface RowKernel {
+        void apply(int yStart, int yEnd);
+    }
 
-        int total = width * height;
+    private static int tileCount(int height) {
+        return (height + TILE_ROWS - 1) / TILE_ROWS;
+    }
+
+    /**
+     * Run the kernel once per tile of TILE_ROWS rows, on the fork/join pool
+     * for large images and on the calling thread otherwise.
+     */
+    private static void forEachTile(int width, int height, RowKernel kernel) {
+        if ((long) width * height < PARALLEL_MIN_PIXELS || height <= TILE_ROWS) {
+            for (int y0 = 0; y0 < height; y0 += TILE_ROWS) {
+                kernel.apply(y0, Math.min(height, y0 + TILE_ROWS));
+            }
+            return;
+        }
+        TILE_POOL.invoke(new TileTask(kernel, 0, tileCount(height), height));
+    }
+
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RowKernel kernel;
+        private final int firstTile;
+        private final int endTile;
+        private final int height;
+
+        TileTask(RowKernel kernel, int firstTile, int endTile, int height) {
+            this.kernel = kernel;
+            this.firstTile = firstTile;
+            this.endTile = endTile;
+            this.height = height;
+        }
+
+        @Override
+        protected void compute() {
+            if (endTile - firstTile == 1) {
+                int yStart = firstTile * TILE_ROWS;
+                kernel.apply(yStart, Math.min(height, yStart + TILE_ROWS));
+                return;
+            }
+            int mid = (firstTile + endTile) >>> 1;
+            invokeAll(new TileTask(kernel, firstTile, mid, height),
+                    new TileTask(kernel, mid, endTile, height));
+        }
+    }
+
+    private static int[] histogram(byte[] pixels, int width, int height) {
+        int[][] tileHistograms = new int[tileCount(height)][];
+        forEachTile(width, height, (yStart, yEnd) -> {
+            int[] histogram = new int[256];
+            for (int i = yStart * width, end = yEnd * width; i < end; i++) {
+                histogram[pixels[i] & 0xFF]++;
+            }
+            tileHistograms[yStart / TILE_ROWS] = histogram;
+        });
+        return mergeHistograms(tileHistograms);
+    }
+
+    private static int[] mergeHistograms(int[][] tileHistograms) {
+        int[] merged = new int[256];
+        for (int[] histogram : tileHistograms) {
+            for (int i = 0; i < 256; i++) {
+                merged[i] += histogram[i];
+            }
+        }
+        return merged;
+    }
+
+    // Package-private: measured directly by the JMH benchmarks
+    static int calculateOtsuThreshold(BufferedImage gray) {
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        byte[] pixels = grayPixels(gray);
+
+        return otsuThreshold(histogram(pixels, width, height), width * height);
+    }
+
+    // Package-private: also used by CardAligner
+    static int otsuThreshold(int[] histogram, int total) {
         float sum = 0;
         for (int i = 0; i < 256; i++) {
             sum += i * histogram[i];
@@ -153,7 +456,10 @@ public class ImagePreprocessor {
 
     private static BufferedImage adaptiveContrast(BufferedImage gray) {
         int threshold = calculateOtsuThreshold(gray);
+        return mapPixels(gray, adaptiveContrastLut(threshold));
+    }
 
+    private static byte[] adaptiveContrastLut(int threshold) {
         float scaleFactor = 1.3f + (128f - threshold) / 200f;
 
         scaleFactor = Math.max(1.2f, Math.min(2.5f, scaleFactor));
@@ -164,14 +470,48 @@ public class ImagePreprocessor {
 
         float offset = (threshold < 80) ? 20 : 0;
 
-        RescaleOp rescale = new RescaleOp(scaleFactor, offset, null);
-        BufferedImage result = new BufferedImage(
-                gray.getWidth(), gray.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        return rescale.filter(gray, result);
+        return rescaleLut(scaleFactor, offset);
+    }
+
+    /**
+     * Lookup table equivalent to a RescaleOp on 8-bit samples
+     * (value * scale + offset, truncated and clamped to 0-255).
+     */
+    private static byte[] rescaleLut(float scale, float offset) {
+        byte[] lut = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            int value = (int) (i * scale + offset);
+            lut[i] = (byte) (value < 0 ? 0 : (value > 255 ? 255 : value));
+        }
+        return lut;
+    }
+
+    private static void applyLut(byte[] src, byte[] dst, byte[] lut, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dst[i] = lut[src[i] & 0xFF];
+        }
+    }
+
+    private static BufferedImage mapPixels(BufferedImage gray, byte[] lut) {
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        byte[] src = grayPixels(gray);
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(result);
+        forEachTile(width, height, (yStart, yEnd) ->
+                applyLut(src, dst, lut, yStart * width, yEnd * width));
+        return result;
     }
 
+    /**
+     * Bring the image up to minWidth. Images that are already wide enough
+     * are returned unchanged rather than redrawn at the same size.
+     */
     private static BufferedImage resize(BufferedImage image, int minWidth) {
-        int targetWidth = Math.max(image.getWidth(), minWidth);
+        if (image.getWidth() >= minWidth) {
+            return image;
+        }
+        int targetWidth = minWidth;
         int targetHeight = (int) ((double) image.getHeight() / image.getWidth() * targetWidth);
 
         BufferedImage resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_BYTE_GRAY);
@@ -208,31 +548,61 @@ public class ImagePreprocessor {
     }
 
     public static BufferedImage preprocessCroppedRegion(BufferedImage crop) {
-        BufferedImage upscaled = upscaleIfNeeded(crop, 600);
-        BufferedImage gray = toGrayscale(upscaled);
+        BufferedImage gray = toGrayscaleScaled(crop, 600);
         BufferedImage sharpened = sharpen(gray);
         BufferedImage binary = binarize(sharpened);
         return binary;
     }
 
+    /**
+     * Common prefix of the multipass variants (upscale, grayscale, sharpen),
+     * computed once so each variant only runs its own tail.
+     * The images are only read by the variants, so one instance can be
+     * shared between threads.
+     */
+    public static class MultipassInput {
+        public final BufferedImage gray;
+        public final BufferedImage sharpened;
+
+        private MultipassInput(BufferedImage gray, BufferedImage sharpened) {
+            this.gray = gray;
+            this.sharpened = sharpened;
+        }
+    }
+
+    public static MultipassInput prepareMultipass(BufferedImage input) {
+        BufferedImage gray = toOcrResolution(input);
+        BufferedImage sharpened = sharpen(gray);
+        return new MultipassInput(gray, sharpened);
+    }
+
     public static BufferedImage preprocessStandard(BufferedImage input) {
         return preprocess(input);
     }
 
+    public static BufferedImage preprocessStandard(MultipassInput input) {
+        return denoiseSharpenContrast(input.gray);
+    }
+
     public static BufferedImage preprocessHighContrast(BufferedImage input) {
-        BufferedImage upscaled = upscaleIfNeeded(input, TARGET_WIDTH);
-        BufferedImage gray = toGrayscale(upscaled);
-        BufferedImage sharpened = sharpen(gray);
+        return preprocessHighContrast(prepareMultipass(input));
+    }
 
-        RescaleOp rescale = new RescaleOp(2.2f, -30, null);
-        BufferedImage contrasted = rescale.filter(sharpened, null);
+    public static BufferedImage preprocessHighContrast(MultipassInput input) {
+        BufferedImage contrasted = mapPixels(input.sharpened, rescaleLut(2.2f, -30));
 
         return resize(contrasted, TARGET_WIDTH);
     }
 
     public static BufferedImage preprocessInverted(BufferedImage input) {
-        BufferedImage upscaled = upscaleIfNeeded(input, TARGET_WIDTH);
-        BufferedImage gray = toGrayscale(upscaled);
+        return invertedFromGray(toOcrResolution(input));
+    }
+
+    public static BufferedImage preprocessInverted(MultipassInput input) {
+        return invertedFromGray(input.gray);
+    }
+
+    private static BufferedImage invertedFromGray(BufferedImage gray) {
         BufferedImage inverted = invert(gray);
         BufferedImage contrasted = adaptiveContrast(inverted);
 
@@ -242,47 +612,49 @@ public class ImagePreprocessor {
     private static BufferedImage invert(BufferedImage image) {
         int width = image.getWidth();
         int height = image.getHeight();
+        byte[] src = grayPixels(image);
         BufferedImage inverted = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(inverted);
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = image.getRaster().getSample(x, y, 0);
-                inverted.getRaster().setSample(x, y, 0, 255 - pixel);
+        forEachTile(width, height, (yStart, yEnd) -> {
+            for (int i = yStart * width, end = yEnd * width; i < end; i++) {
+                dst[i] = (byte) ~src[i];
             }
-        }
+        });
 
         return inverted;
     }
 
-    private static BufferedImage binarize(BufferedImage gray) {
+    // Package-private: measured directly by the JMH benchmarks
+    static BufferedImage binarize(BufferedImage gray) {
         int threshold = calculateOtsuThreshold(gray);
         int width = gray.getWidth();
         int height = gray.getHeight();
+        byte[] src = grayPixels(gray);
         BufferedImage binary = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(binary);
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = gray.getRaster().getSample(x, y, 0);
-                int value = (pixel > threshold) ? 255 : 0;
-                binary.getRaster().setSample(x, y, 0, value);
+        forEachTile(width, height, (yStart, yEnd) -> {
+            for (int i = yStart * width, end = yEnd * width; i < end; i++) {
+                dst[i] = ((src[i] & 0xFF) > threshold) ? (byte) 255 : 0;
             }
-        }
+        });
 
         return binary;
     }
 
     public static BufferedImage preprocessBinarized(BufferedImage input) {
-        BufferedImage upscaled = upscaleIfNeeded(input, TARGET_WIDTH);
-        BufferedImage gray = toGrayscale(upscaled);
-        BufferedImage sharpened = sharpen(gray);
-        BufferedImage binary = binarize(sharpened);
+        return preprocessBinarized(prepareMultipass(input));
+    }
+
+    public static BufferedImage preprocessBinarized(MultipassInput input) {
+        BufferedImage binary = binarize(input.sharpened);
 
         return resize(binary, TARGET_WIDTH);
     }
 
     public static BufferedImage preprocessBinarizedInverted(BufferedImage input) {
-        BufferedImage upscaled = upscaleIfNeeded(input, TARGET_WIDTH);
-        BufferedImage gray = toGrayscale(upscaled);
+        BufferedImage gray = toOcrResolution(input);
         BufferedImage sharpened = sharpen(gray);
         BufferedImage binary = binarize(sharpened);
         BufferedImage inverted = invert(binary);
@@ -291,47 +663,109 @@ public class ImagePreprocessor {
     }
 
     public static BufferedImage preprocessAdaptiveLocal(BufferedImage input) {
-        BufferedImage upscaled = upscaleIfNeeded(input, TARGET_WIDTH);
-        BufferedImage gray = toGrayscale(upscaled);
-        BufferedImage sharpened = sharpen(gray);
-        BufferedImage adaptive = adaptiveLocalThreshold(sharpened, 15);
+        return preprocessAdaptiveLocal(prepareMultipass(input));
+    }
+
+    public static BufferedImage preprocessAdaptiveLocal(MultipassInput input) {
+        BufferedImage adaptive = adaptiveLocalThreshold(input.sharpened, 15);
 
         return resize(adaptive, TARGET_WIDTH);
     }
 
+    /**
+     * Mean-of-neighbourhood threshold, window clipped at the image border.
+     * Window sums come from an integral image, so cost per pixel does not
+     * depend on blockSize.
+     */
     private static BufferedImage adaptiveLocalThreshold(BufferedImage gray, int blockSize) {
         int width = gray.getWidth();
         int height = gray.getHeight();
+        byte[] src = grayPixels(gray);
         BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = backingBytes(result);
 
         int halfBlock = blockSize / 2;
         int offset = 10;
 
+        // integral[(y + 1) * stride + (x + 1)] = sum of src over [0..x] x [0..y].
+        // Totals may wrap past Integer.MAX_VALUE on very large images, but the
+        // window differences below are still exact because a window sum always fits.
+        int stride = width + 1;
+        int[] integral = new int[stride * (height + 1)];
         for (int y = 0; y < height; y++) {
+            int rowSum = 0;
+            int srcRow = y * width;
+            int above = y * stride;
+            int row = above + stride;
             for (int x = 0; x < width; x++) {
-                int sum = 0;
-                int count = 0;
-
-                for (int dy = -halfBlock; dy <= halfBlock; dy++) {
-                    for (int dx = -halfBlock; dx <= halfBlock; dx++) {
-                        int nx = x + dx;
-                        int ny = y + dy;
-                        if (nx >= 0 && nx < width && ny >= 0 && ny < height) {
-                            sum += gray.getRaster().getSample(nx, ny, 0);
-                            count++;
-                        }
-                    }
+                rowSum += src[srcRow + x] & 0xFF;
+                integral[row + x + 1] = integral[above + x + 1] + rowSum;
+            }
+        }
+
+        forEachTile(width, height, (yStart, yEnd) -> {
+            for (int y = yStart; y < yEnd; y++) {
+                int y0 = Math.max(0, y - halfBlock);
+                int y1 = Math.min(height - 1, y + halfBlock) + 1;
+                int top = y0 * stride;
+                int bottom = y1 * stride;
+                int rows = y1 - y0;
+                int rowOffset = y * width;
+
+                for (int x = 0; x < width; x++) {
+                    int x0 = Math.max(0, x - halfBlock);
+                    int x1 = Math.min(width - 1, x + halfBlock) + 1;
+
+                    int sum = integral[bottom + x1] - integral[bottom + x0]
+                            - integral[top + x1] + integral[top + x0];
+                    int count = rows * (x1 - x0);
+
+                    int localMean = sum / count;
+                    int threshold = localMean - offset;
+
+                    int pixel = src[rowOffset + x] & 0xFF;
+                    dst[rowOffset + x] = (pixel > threshold) ? (byte) 255 : 0;
                 }
+            }
+        });
 
-                int localMean = sum / count;
-                int threshold = localMean - offset;
+        return result;
+    }
 
-                int pixel = gray.getRaster().getSample(x, y, 0);
-                int value = (pixel > threshold) ? 255 : 0;
-                result.getRaster().setSample(x, y, 0, value);
+    /**
+     * Pixels of a grayscale image as one row-major byte per pixel.
+     * Returns the raster's own array when it is already packed that way
+     * (any image created as TYPE_BYTE_GRAY), otherwise a copy.
+     */
+    private static byte[] grayPixels(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            image = toGrayscale(image);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        WritableRaster raster = image.getRaster();
+
+        if (raster.getParent() == null
+                && raster.getSampleModel() instanceof ComponentSampleModel
+                && raster.getDataBuffer() instanceof DataBufferByte) {
+            ComponentSampleModel sm = (ComponentSampleModel) raster.getSampleModel();
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            if (sm.getPixelStride() == 1 && sm.getScanlineStride() == width
+                    && buffer.getNumBanks() == 1 && buffer.getOffset() == 0
+                    && buffer.getData().length == width * height) {
+                return buffer.getData();
             }
         }
 
-        return result;
+        byte[] copy = new byte[width * height];
+        raster.getDataElements(0, 0, width, height, copy);
+        return copy;
+    }
+
+    /**
+     * Backing array of an image this class just created as TYPE_BYTE_GRAY.
+     */
+    private static byte[] backingBytes(BufferedImage gray) {
+        return ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
     }
 }
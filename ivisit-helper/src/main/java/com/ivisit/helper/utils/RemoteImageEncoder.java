@@ -0,0 +1,138 @@
+package com.ivisit.helper.utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+
+/**
+ * Image encoding for uploads to remote OCR providers.
+ *
+ * The upload is written straight into the HTTP request body: the image is
+ * fitted once into a bounded RGB copy, then JPEG-encoded (and, for JSON
+ * bodies, Base64-encoded) while it streams out. The encoder's output stream
+ * hands each chunk on as soon as it is written, so neither the whole JPEG
+ * nor a Base64 String of it is held in memory.
+ */
+public class RemoteImageEncoder {
+
+    private static final int COPY_BUFFER = 8192;
+
+    /**
+     * Scale the image so neither side exceeds maxDimension and flatten it to
+     * RGB on white (JPEG has no alpha, and PNG alpha causes "Bogus input
+     * colorspace" errors). One draw does both.
+     */
+    public static BufferedImage fitRgb(BufferedImage src, int maxDimension) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int newWidth = Math.max(1, (int) (width * scale));
+        int newHeight = Math.max(1, (int) (height * scale));
+
+        if (scale == 1.0 && src.getType() == BufferedImage.TYPE_INT_RGB) {
+            return src;
+        }
+
+        BufferedImage rgb = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, newWidth, newHeight);
+        g.drawImage(src, 0, 0, newWidth, newHeight, null);
+        g.dispose();
+        return rgb;
+    }
+
+    /**
+     * JPEG-encode the image into the stream. The stream is flushed but not
+     * closed, so callers can keep writing after it.
+     */
+    public static void writeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageOutputStream ios = new PassThroughImageOutputStream(new NonClosingOutputStream(out));
+        try {
+            writer.setOutput(ios);
+
+            JPEGImageWriteParam param = new JPEGImageWriteParam(null);
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+            ios.close();
+        }
+        out.flush();
+    }
+
+    /**
+     * Stream that Base64-encodes everything written to it into out.
+     * Closing it writes the final padding but leaves out open.
+     */
+    public static OutputStream base64(OutputStream out) {
+        return Base64.getEncoder().wrap(new NonClosingOutputStream(out));
+    }
+
+    /**
+     * Copy the raw upload, for images ImageIO cannot decode.
+     */
+    public static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+
+    /**
+     * MemoryCacheImageOutputStream (no temp file) that flushes its cache into
+     * the target after every write instead of holding the whole encoding
+     * until close. The JPEG writer only writes forward when no thumbnail
+     * metadata is given, so it never seeks back into flushed bytes.
+     */
+    private static class PassThroughImageOutputStream extends MemoryCacheImageOutputStream {
+        PassThroughImageOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            flushBefore(getStreamPosition());
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            flushBefore(getStreamPosition());
+        }
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ivisit.helper.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Gates exist only for the known endpoints plus one shared "other" gate,
+ * whatever endpoint names requests arrive with.
+ */
+class OcrAdmissionControlTests {
+
+	@Test
+	void unknownEndpointsShareOneGate() throws Exception {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("ocr.admission.limit.other", "2");
+		OcrAdmissionControl control = new OcrAdmissionControl(environment, 0, 0);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		control.bindTo(registry);
+		int meters = registry.getMeters().size();
+
+		List<OcrAdmissionControl.Permit> permits = new ArrayList<>();
+		permits.add(control.tryAdmit("does-not-exist"));
+		permits.add(control.tryAdmit("x" + System.nanoTime()));
+		permits.forEach(permit -> assertNotNull(permit));
+		// Limit 2 and no queue: a third unknown name is refused by the same gate
+		assertNull(control.tryAdmit("yet-another"));
+		assertNotNull(control.tryAdmit("smart"));
+
+		Map<?, ?> endpoints = (Map<?, ?>) control.snapshot().get("endpoints");
+		List<String> expected = new ArrayList<>(OcrAdmissionControl.ENDPOINTS);
+		expected.add("other");
+		assertEquals(expected, new ArrayList<>(endpoints.keySet()));
+		assertEquals(2, otherInFlight(control));
+		assertEquals(meters, registry.getMeters().size());
+
+		permits.forEach(OcrAdmissionControl.Permit::release);
+		assertEquals(0, otherInFlight(control));
+	}
+
+	private static Object otherInFlight(OcrAdmissionControl control) {
+		Map<?, ?> endpoints = (Map<?, ?>) control.snapshot().get("endpoints");
+		return ((Map<?, ?>) endpoints.get("other")).get("inFlight");
+	}
+}
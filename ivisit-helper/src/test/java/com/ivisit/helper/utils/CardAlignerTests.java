@@ -0,0 +1,123 @@
+package com.ivisit.helper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A light ID-1 card with dark text lines on a dark desk, placed and rotated
+ * by a known amount. The aligned image must be the card plus the 1% margin,
+ * with its top edge level again.
+ */
+class CardAlignerTests {
+
+	private static final int FRAME_WIDTH = 1200;
+	private static final int FRAME_HEIGHT = 800;
+	private static final int CARD_WIDTH = 856;
+	private static final int CARD_HEIGHT = 540;
+
+	// One pixel of the 400 px detection copy is three pixels here
+	private static final int SIZE_TOLERANCE = 12;
+
+	@Test
+	void cropsAndDeskewsRotatedCard() {
+		for (double degrees : new double[] {6.0, -4.0}) {
+			BufferedImage aligned = CardAligner.align(capture(degrees, 0, 0));
+
+			assertCardSize(aligned, degrees + " deg");
+			int left = topEdge(aligned, aligned.getWidth() / 5);
+			int right = topEdge(aligned, aligned.getWidth() * 4 / 5);
+			double residual = Math.toDegrees(Math.atan2(right - left, aligned.getWidth() * 3 / 5.0));
+			assertTrue(Math.abs(residual) < 0.5, degrees + " deg left " + residual + " deg of skew");
+		}
+	}
+
+	@Test
+	void cropsLevelCardWithoutRotating() {
+		BufferedImage capture = capture(0, -120, 60);
+		BufferedImage aligned = CardAligner.align(capture);
+
+		assertCardSize(aligned, "level");
+		// Card centre is 120 px left of and 60 px below the frame centre
+		int x0 = (FRAME_WIDTH - CARD_WIDTH) / 2 - 120;
+		int y0 = (FRAME_HEIGHT - CARD_HEIGHT) / 2 + 60;
+		assertTrue(Math.abs(offsetX(aligned) - (x0 - CARD_WIDTH * 0.01)) <= SIZE_TOLERANCE,
+				"crop starts at x " + offsetX(aligned));
+		assertTrue(Math.abs(offsetY(aligned) - (y0 - CARD_HEIGHT * 0.01)) <= SIZE_TOLERANCE,
+				"crop starts at y " + offsetY(aligned));
+		// Not rotated: pixels are the capture's own
+		assertEquals(capture.getRGB(x0 + 10, y0 + 100),
+				aligned.getRGB(x0 + 10 - offsetX(aligned), y0 + 100 - offsetY(aligned)));
+	}
+
+	@Test
+	void returnsImageUnchangedWithoutCard() {
+		BufferedImage blank = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		assertSame(blank, CardAligner.align(blank));
+
+		// A card that already fills the frame is not cropped
+		BufferedImage filled = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = filled.createGraphics();
+		g.setColor(new Color(235, 235, 230));
+		g.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+		g.setColor(new Color(20, 20, 25));
+		g.fillRect(300, 200, 400, 40);
+		g.dispose();
+		assertSame(filled, CardAligner.align(filled));
+	}
+
+	private static void assertCardSize(BufferedImage aligned, String label) {
+		assertTrue(Math.abs(aligned.getWidth() - CARD_WIDTH * 1.02) <= SIZE_TOLERANCE,
+				label + " width " + aligned.getWidth());
+		assertTrue(Math.abs(aligned.getHeight() - CARD_HEIGHT * 1.02) <= SIZE_TOLERANCE,
+				label + " height " + aligned.getHeight());
+	}
+
+	// First light pixel from the top in column x
+	private static int topEdge(BufferedImage image, int x) {
+		for (int y = 0; y < image.getHeight(); y++) {
+			if ((image.getRGB(x, y) & 0xFF) > 128) {
+				return y;
+			}
+		}
+		return -1;
+	}
+
+	// getSubimage keeps the parent raster; its offset is where the crop starts
+	private static int offsetX(BufferedImage image) {
+		return -image.getRaster().getSampleModelTranslateX();
+	}
+
+	private static int offsetY(BufferedImage image) {
+		return -image.getRaster().getSampleModelTranslateY();
+	}
+
+	// Card centred at the frame centre plus (dx, dy), rotated clockwise by degrees
+	private static BufferedImage capture(double degrees, int dx, int dy) {
+		BufferedImage image = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setColor(new Color(45, 40, 38));
+		g.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+
+		g.translate(FRAME_WIDTH / 2.0 + dx, FRAME_HEIGHT / 2.0 + dy);
+		g.rotate(Math.toRadians(degrees));
+		g.translate(-CARD_WIDTH / 2.0, -CARD_HEIGHT / 2.0);
+		g.setColor(new Color(235, 235, 230));
+		g.fillRoundRect(0, 0, CARD_WIDTH, CARD_HEIGHT, 30, 30);
+		g.setColor(new Color(20, 20, 25));
+		for (int line = 0; line < 6; line++) {
+			g.fillRect(CARD_WIDTH / 3, 120 + line * 60, CARD_WIDTH / 2 - line * 20, 22);
+		}
+		g.fillRect(40, 120, CARD_WIDTH / 4, 300);
+		g.dispose();
+		return image;
+	}
+}
@@ -0,0 +1,210 @@
+package com.ivisit.helper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Field extraction per ID type. Without an ID type hint the result must be
+ * what OcrSpaceController.extractFieldsFromText returned before the rule
+ * table; that method is kept below as the reference. With a hint, the
+ * hinted type's rules win over the default order.
+ */
+class IdFieldExtractorTests {
+
+	private static final String PHILHEALTH_CARD = "REPUBLIC OF THE PHILIPPINES\n"
+			+ "PHILHEALTH\n"
+			+ "DELA CRUZ, JUAN SANTOS\n"
+			+ "12-345678901-2\n"
+			+ "DATE OF BIRTH 1990-05-17\n";
+
+	private static final String SSS_CARD = "SOCIAL SECURITY SYSTEM\n"
+			+ "SSS 34-1234567-8\n"
+			+ "REYES, ANA MARIE\n"
+			+ "March 3, 1985\n";
+
+	private static final String PHILID_CARD = "PAMBANSANG PAGKAKAKILANLAN\n"
+			+ "PSN-1234-5678-9012-3456\n"
+			+ "SANTOS\n"
+			+ "MARIA CLARA\n"
+			+ "1992/01/09\n";
+
+	// OCR read the zeroes of the PSN as the letter O
+	private static final String PHILID_CARD_NOISY = "PAMBANSANG PAGKAKAKILANLAN\n"
+			+ "PSN 1234 5O78 9O12 3456\n"
+			+ "SANTOS\n"
+			+ "MARIA CLARA\n"
+			+ "01/09/1992\n";
+
+	private static final String LTO_CARD = "REPUBLIC OF THE PHILIPPINES\n"
+			+ "DRIVER'S LICENSE\n"
+			+ "GARCIA, PEDRO LUIS\n"
+			+ "Date of Birth 1979/12/01\n"
+			+ "License No. N01-23-456789\n";
+
+	// The CRN's last 10 digits also read as an SSS number
+	private static final String UMID_CARD = "Unified Multi-Purpose ID\n"
+			+ "CRN-0111-2345678-9\n"
+			+ "Surname\n"
+			+ "VILLANUEVA\n"
+			+ "Given Name\n"
+			+ "ROSARIO\n"
+			+ "1968/07/22\n";
+
+	// text, ID type hint, idNumber, idType, fullName, dob; null means the field is absent
+	private static final String[][] CASES = {
+			{PHILHEALTH_CARD, null, "12-345678901-2", "PhilHealth ID", "DELA CRUZ, JUAN SANTOS", "1990-05-17"},
+			{PHILHEALTH_CARD, "PhilHealth ID", "12-345678901-2", "PhilHealth ID", "DELA CRUZ, JUAN SANTOS", "1990-05-17"},
+			{SSS_CARD, null, "34-1234567-8", "SSS ID", "REYES, ANA MARIE", "March 3, 1985"},
+			{SSS_CARD, "SSS ID", "34-1234567-8", "SSS ID", "REYES, ANA MARIE", "March 3, 1985"},
+			{PHILID_CARD, null, "1234-5678-9012-3456", "National ID", "SANTOS MARIA CLARA", "1992/01/09"},
+			{PHILID_CARD_NOISY, "PhilSys", "1234-5078-9012-3456", "National ID", "SANTOS MARIA CLARA", "01/09/1992"},
+			// LTO and UMID numbers are only looked for when the hint names them
+			{LTO_CARD, null, null, null, "GARCIA, PEDRO LUIS", "1979/12/01"},
+			{LTO_CARD, "Driver's License", "N01-23-456789", "Driver's License", "GARCIA, PEDRO LUIS", "1979/12/01"},
+			{LTO_CARD, "DRIVERS LICENSE", "N01-23-456789", "Driver's License", "GARCIA, PEDRO LUIS", "1979/12/01"},
+			{UMID_CARD, null, "11-2345678-9", "SSS ID", "VILLANUEVA ROSARIO", "1968/07/22"},
+			{UMID_CARD, "UMID", "0111-2345678-9", "UMID", "VILLANUEVA ROSARIO", "1968/07/22"},
+			// An unknown hint keeps the default order
+			{UMID_CARD, "Postal ID", "11-2345678-9", "SSS ID", "VILLANUEVA ROSARIO", "1968/07/22"},
+	};
+
+	@Test
+	void extractsFieldsForEachIdType() {
+		for (String[] c : CASES) {
+			Map<String, String> fields = IdFieldExtractor.extract(c[0], c[1]);
+			String label = c[1] + " / " + c[0].split("\n")[1];
+			assertEquals(c[2], fields.get("idNumber"), label);
+			assertEquals(c[3], fields.get("idType"), label);
+			assertEquals(c[4], fields.get("fullName"), label);
+			assertEquals(c[5], fields.get("dob"), label);
+		}
+	}
+
+	@Test
+	void hintedRulesComeBeforeTheDefaultOrder() {
+		// Both an SSS and a PhilHealth number; PhilHealth wins by default
+		String text = "SSS 34-1234567-8\nPhilHealth 12-345678901-2\n";
+		assertEquals("12-345678901-2", IdFieldExtractor.extract(text).get("idNumber"));
+
+		Map<String, String> hinted = IdFieldExtractor.extract(text, "sss id");
+		assertEquals("SSS ID", hinted.get("idType"));
+		assertEquals("34-1234567-8", hinted.get("idNumber"));
+
+		// A hinted rule that finds nothing falls through to the default rules
+		Map<String, String> fallback = IdFieldExtractor.extract(PHILHEALTH_CARD, "UMID");
+		assertEquals("PhilHealth ID", fallback.get("idType"));
+		assertEquals("12-345678901-2", fallback.get("idNumber"));
+	}
+
+	@Test
+	void matchesLegacyExtractionWithoutHint() {
+		List<String> texts = new ArrayList<>(SyntheticCards.ocrTexts());
+		for (String[] c : CASES) {
+			texts.add(c[0]);
+		}
+		texts.add("");
+		texts.add("no id here\n");
+		texts.add("ID 1234 5678 9012 3456\nDOB 2001-02-03");
+
+		for (String text : texts) {
+			assertEquals(legacyExtract(text), IdFieldExtractor.extract(text), text);
+		}
+	}
+
+	@Test
+	void emptyTextGivesNoFields() {
+		assertTrue(IdFieldExtractor.extract(null).isEmpty());
+		assertTrue(IdFieldExtractor.extract("", "UMID").isEmpty());
+	}
+
+	private static final String[] LEGACY_NOT_A_NAME = {"REPUBLIC", "PILIPINAS", "PHILIPPINES", "PHILHEALTH",
+			"PAMBANSANG", "PAGKAKAKILANLAN", "DEPARTMENT", "NATIONAL", "IDENTIFICATION", "APELYIDO", "PANGALAN",
+			"GITNANG", "TIRAHAN", "PETSA", "KAPANGANAKAN", "KASARIAN", "KATAYUANG", "DUGO", "NAME", "DATE", "BIRTH",
+			"ADDRESS", "SECURITY", "SOCIAL", "SYSTEM", "BRGY", "BARANGAY", "METRO", "MANILA", "CITY", "QUEZON",
+			"MAKATI", "PASIG", "STATUS", "SINGLE", "MARRIED", "MALE", "FEMALE", "PHL", "PSN", "SAMPLE", "PROUD",
+			"FILIPINO", "SSS", "CORAZON", "MEMBER"};
+
+	// OcrSpaceController.extractFieldsFromText as it was before IdFieldExtractor
+	private static Map<String, String> legacyExtract(String text) {
+		Map<String, String> fields = new HashMap<>();
+		if (text == null || text.isEmpty()) {
+			return fields;
+		}
+
+		Matcher philhealth = Pattern.compile("(\\d{2})[-\\s]?(\\d{9})[-\\s]?(\\d)")
+				.matcher(text.replaceAll("\\s+", ""));
+		if (philhealth.find()) {
+			fields.put("idNumber", philhealth.group(1) + "-" + philhealth.group(2) + "-" + philhealth.group(3));
+			fields.put("idType", "PhilHealth ID");
+		}
+
+		Matcher sss = Pattern.compile("(\\d{2})[-\\s]?(\\d{7})[-\\s]?(\\d)").matcher(text.replaceAll("\\s+", ""));
+		if (sss.find() && !fields.containsKey("idNumber")) {
+			fields.put("idNumber", sss.group(1) + "-" + sss.group(2) + "-" + sss.group(3));
+			fields.put("idType", "SSS ID");
+		}
+
+		Matcher psn = Pattern
+				.compile("(?:PSN[-–\\s]*)?([\\dO]{4})[-–\\s]?([\\dO]{3,4})[-–\\s]?([\\dO]{4})[-–\\s]?([\\dO]{1,4})")
+				.matcher(text.replaceAll("[oO]", "0"));
+		if (psn.find() && !fields.containsKey("idNumber")) {
+			fields.put("idNumber", psn.group(1).replaceAll("[oO]", "0") + "-" + psn.group(2).replaceAll("[oO]", "0")
+					+ "-" + psn.group(3).replaceAll("[oO]", "0") + "-" + psn.group(4).replaceAll("[oO]", "0"));
+			fields.put("idType", "National ID");
+		}
+
+		if (!fields.containsKey("idNumber")) {
+			Matcher national = Pattern.compile("(\\d{4})[-\\s]?(\\d{4})[-\\s]?(\\d{4})[-\\s]?(\\d{4})").matcher(text);
+			if (national.find()) {
+				fields.put("idNumber", national.group(1) + "-" + national.group(2) + "-"
+						+ national.group(3) + "-" + national.group(4));
+				fields.put("idType", "National ID");
+			}
+		}
+
+		StringBuilder nameBuilder = new StringBuilder();
+		for (String line : text.split("\n")) {
+			String trimmed = line.trim();
+			if (trimmed.length() >= 3 && trimmed.length() <= 40
+					&& trimmed.equals(trimmed.toUpperCase())
+					&& trimmed.matches("^[A-Z\\s,.-]+$")
+					&& !trimmed.matches(".*\\d.*")
+					&& !containsAny(trimmed, LEGACY_NOT_A_NAME)) {
+				if (nameBuilder.length() > 0) {
+					nameBuilder.append(" ");
+				}
+				nameBuilder.append(trimmed);
+			}
+		}
+		if (nameBuilder.length() > 0) {
+			fields.put("fullName", nameBuilder.toString());
+		}
+
+		Matcher date = Pattern.compile("(\\d{4})[/-](\\d{2})[/-](\\d{2})|"
+				+ "(\\d{2})[/-](\\d{2})[/-](\\d{4})|"
+				+ "(JANUARY|FEBRUARY|MARCH|APRIL|MAY|JUNE|JULY|AUGUST|SEPTEMBER|OCTOBER|NOVEMBER|DECEMBER)"
+				+ "\\s+(\\d{1,2}),?\\s+(\\d{4})", Pattern.CASE_INSENSITIVE).matcher(text);
+		if (date.find()) {
+			fields.put("dob", date.group());
+		}
+		return fields;
+	}
+
+	private static boolean containsAny(String s, String[] words) {
+		for (String word : words) {
+			if (s.contains(word)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,161 @@
+package com.ivisit.helper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The fused, tiled and integral-image pixel stages against a plain
+ * pixel-by-pixel version of each stage. Cards are 1600 wide, so no rescale
+ * runs and the stages see the input as-is. Heights cover the sequential path,
+ * the fork/join path with a partial last tile, and sub-images whose raster
+ * has a parent offset.
+ */
+class ImagePreprocessorTests {
+
+	private static final int WIDTH = 1600;
+
+	@Test
+	void standardPipelineMatchesReferenceOnCallingThread() {
+		// 1600 x 300 stays below the parallel threshold
+		assertStandardMatches(SyntheticCards.grayCapture(WIDTH, 300, 3L));
+	}
+
+	@Test
+	void standardPipelineMatchesReferenceAcrossParallelTiles() {
+		// 1009 rows: 15 full tiles plus a partial one, over the fork/join pool
+		assertStandardMatches(SyntheticCards.grayCapture(WIDTH, 1009, 1L));
+	}
+
+	@Test
+	void standardPipelineMatchesReferenceOnSubImage() {
+		BufferedImage parent = SyntheticCards.grayCapture(WIDTH + 75, 1100, 2L);
+		assertStandardMatches(parent.getSubimage(37, 21, WIDTH, 1001));
+	}
+
+	@Test
+	void adaptiveLocalThresholdMatchesReference() {
+		BufferedImage parent = SyntheticCards.grayCapture(WIDTH + 40, 1080, 4L);
+		for (BufferedImage gray : new BufferedImage[] {
+				SyntheticCards.grayCapture(WIDTH, 1009, 5L),
+				parent.getSubimage(13, 9, WIDTH, 1040)}) {
+			int[] expected = referenceAdaptiveLocal(referenceSharpen(pixels(gray), WIDTH, gray.getHeight()),
+					WIDTH, gray.getHeight(), 15, 10);
+			assertPixels(expected, ImagePreprocessor.preprocessAdaptiveLocal(gray));
+		}
+	}
+
+	@Test
+	void binarizeMatchesReferenceOnSubImage() {
+		BufferedImage parent = SyntheticCards.grayCapture(WIDTH + 40, 1080, 6L);
+		BufferedImage gray = parent.getSubimage(40, 50, WIDTH, 1030);
+		int[] src = pixels(gray);
+		int threshold = ImagePreprocessor.otsuThreshold(histogram(src), src.length);
+		assertEquals(threshold, ImagePreprocessor.calculateOtsuThreshold(gray));
+
+		int[] expected = new int[src.length];
+		for (int i = 0; i < src.length; i++) {
+			expected[i] = src[i] > threshold ? 255 : 0;
+		}
+		assertPixels(expected, ImagePreprocessor.binarize(gray));
+	}
+
+	private static void assertStandardMatches(BufferedImage gray) {
+		int height = gray.getHeight();
+		int[] sharpened = referenceSharpen(referenceDenoise(pixels(gray), WIDTH, height), WIDTH, height);
+
+		// Otsu itself is not part of the rewrite; it is fed the reference histogram here
+		int threshold = ImagePreprocessor.otsuThreshold(histogram(sharpened), sharpened.length);
+		float scale = Math.max(1.2f, Math.min(2.5f, 1.3f + (128f - threshold) / 200f));
+		if (threshold < 30 || threshold > 220) {
+			scale = 1.8f;
+		}
+		float offset = threshold < 80 ? 20 : 0;
+
+		int[] expected = new int[sharpened.length];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = clamp((int) (sharpened[i] * scale + offset));
+		}
+		assertPixels(expected, ImagePreprocessor.preprocess(gray));
+	}
+
+	// 3x3 mean, rounded; border pixels unchanged
+	private static int[] referenceDenoise(int[] src, int width, int height) {
+		int[] out = src.clone();
+		for (int y = 1; y < height - 1; y++) {
+			for (int x = 1; x < width - 1; x++) {
+				int sum = 0;
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						sum += src[(y + dy) * width + x + dx];
+					}
+				}
+				out[y * width + x] = (int) Math.floor(sum / 9.0 + 0.5);
+			}
+		}
+		return out;
+	}
+
+	// Kernel -0.5 -1 -0.5 / -1 7 -1 / -0.5 -1 -0.5, rounded and clamped; border pixels unchanged
+	private static int[] referenceSharpen(int[] src, int width, int height) {
+		double[][] kernel = {{-0.5, -1, -0.5}, {-1, 7, -1}, {-0.5, -1, -0.5}};
+		int[] out = src.clone();
+		for (int y = 1; y < height - 1; y++) {
+			for (int x = 1; x < width - 1; x++) {
+				double value = 0;
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						value += kernel[dy + 1][dx + 1] * src[(y + dy) * width + x + dx];
+					}
+				}
+				out[y * width + x] = clamp((int) Math.floor(value + 0.5));
+			}
+		}
+		return out;
+	}
+
+	// Mean of the block clipped at the border, minus offset, as the threshold
+	private static int[] referenceAdaptiveLocal(int[] src, int width, int height, int blockSize, int offset) {
+		int half = blockSize / 2;
+		int[] out = new int[src.length];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int sum = 0;
+				int count = 0;
+				for (int yy = Math.max(0, y - half); yy <= Math.min(height - 1, y + half); yy++) {
+					for (int xx = Math.max(0, x - half); xx <= Math.min(width - 1, x + half); xx++) {
+						sum += src[yy * width + xx];
+						count++;
+					}
+				}
+				out[y * width + x] = src[y * width + x] > sum / count - offset ? 255 : 0;
+			}
+		}
+		return out;
+	}
+
+	private static int[] histogram(int[] pixels) {
+		int[] histogram = new int[256];
+		for (int p : pixels) {
+			histogram[p]++;
+		}
+		return histogram;
+	}
+
+	private static int[] pixels(BufferedImage gray) {
+		return gray.getRaster().getPixels(0, 0, gray.getWidth(), gray.getHeight(), (int[]) null);
+	}
+
+	private static void assertPixels(int[] expected, BufferedImage actual) {
+		assertEquals(BufferedImage.TYPE_BYTE_GRAY, actual.getType());
+		assertEquals(expected.length, actual.getWidth() * actual.getHeight());
+		assertArrayEquals(expected, pixels(actual));
+	}
+
+	private static int clamp(int value) {
+		return value < 0 ? 0 : (value > 255 ? 255 : value);
+	}
+}
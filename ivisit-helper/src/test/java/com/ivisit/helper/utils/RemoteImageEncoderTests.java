@@ -0,0 +1,73 @@
+package com.ivisit.helper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The pass-through JPEG stream writes the same bytes as ImageIO's own
+ * buffered stream, and hands them on as the encoder produces them rather
+ * than in one flush once the image is done.
+ */
+class RemoteImageEncoderTests {
+
+	@Test
+	void streamedJpegMatchesBufferedEncoding() throws IOException {
+		BufferedImage image = RemoteImageEncoder.fitRgb(SyntheticCards.capture(1600, 1000, 7L), 1200);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(expected)) {
+			writer.setOutput(ios);
+			JPEGImageWriteParam param = new JPEGImageWriteParam(null);
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(0.8f);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+
+		ChunkRecorder actual = new ChunkRecorder();
+		RemoteImageEncoder.writeJpeg(image, 0.8f, actual);
+
+		assertArrayEquals(expected.toByteArray(), actual.bytes.toByteArray());
+		assertTrue(actual.whileEncoding, "encoded output was held until the image was done");
+	}
+
+	// Records the bytes, and whether any arrived from the encoder's output callback
+	private static class ChunkRecorder extends OutputStream {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		boolean whileEncoding;
+
+		@Override
+		public void write(int b) {
+			record();
+			bytes.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			record();
+			bytes.write(b, off, len);
+		}
+
+		private void record() {
+			for (StackTraceElement frame : new Throwable().getStackTrace()) {
+				whileEncoding |= frame.getClassName().endsWith("JPEGImageWriter")
+						&& frame.getMethodName().equals("writeOutputData");
+			}
+		}
+	}
+}
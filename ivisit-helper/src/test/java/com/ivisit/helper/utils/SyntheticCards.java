@@ -0,0 +1,163 @@
+package com.ivisit.helper.utils;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test and benchmark corpus: ID-card captures drawn in code, and OCR text as
+ * it comes back from Tesseract or OCR.space for the ID types IdFieldExtractor
+ * knows. Lives with the tests; the jmh profile compiles against them.
+ *
+ * A capture is a slightly rotated ID-1 card (1.586:1) with a colored
+ * header, photo box and field labels, on a darker desk, with sensor noise.
+ * Everything is seeded, so the corpus is identical on every run.
+ */
+public class SyntheticCards {
+
+    private static final String[][] CARDS = {
+            {"PHILIPPINE IDENTIFICATION CARD", "DELA CRUZ", "JUAN MIGUEL", "SANTOS",
+                    "1234-5678-9012-3456", "JANUARY 15, 1990", "123 RIZAL ST, BRGY SAN ISIDRO, QUEZON CITY"},
+            {"LAND TRANSPORTATION OFFICE", "REYES", "MARIA ANGELICA", "GARCIA",
+                    "N01-23-456789", "1988/07/04", "45 MABINI AVE, MANDALUYONG CITY"},
+            {"PHILHEALTH", "VILLANUEVA", "JOHN PAUL", "RAMOS",
+                    "12-345678901-2", "03-22-1995", "BLK 5 LOT 7, DASMARINAS, CAVITE"},
+            {"UNIFIED MULTI-PURPOSE ID", "BAUTISTA", "KRISTINE", "LIM",
+                    "CRN-0111-2345678-9", "1979-11-30", "88 P. BURGOS, CEBU CITY"},
+    };
+
+    /**
+     * A capture of the given size; which card is drawn depends on the seed.
+     */
+    public static BufferedImage capture(int width, int height, long seed) {
+        Random random = new Random(seed);
+        String[] card = CARDS[(int) (Math.abs(seed) % CARDS.length)];
+
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, new Color(70, 62, 55), width, height, new Color(40, 36, 33)));
+        g.fillRect(0, 0, width, height);
+
+        // Card covering about 80% of the frame width, tilted a few degrees
+        int cardW = (int) (width * 0.8);
+        int cardH = (int) (cardW / 1.586);
+        if (cardH > height * 0.85) {
+            cardH = (int) (height * 0.85);
+            cardW = (int) (cardH * 1.586);
+        }
+        double angle = Math.toRadians(random.nextDouble() * 6 - 3);
+        AffineTransform frame = g.getTransform();
+        g.rotate(angle, width / 2.0, height / 2.0);
+        g.translate((width - cardW) / 2, (height - cardH) / 2);
+        drawCard(g, card, cardW, cardH);
+        g.setTransform(frame);
+        g.dispose();
+
+        addNoise(img, random, 12);
+        return img;
+    }
+
+    /**
+     * The capture encoded as a phone-camera JPEG, for decode benchmarks.
+     */
+    public static byte[] captureJpeg(int width, int height, long seed) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(capture(width, height, seed), "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The capture as an 8-bit grayscale image, the input of the threshold stages.
+     */
+    public static BufferedImage grayCapture(int width, int height, long seed) {
+        BufferedImage color = capture(width, height, seed);
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        g.drawImage(color, 0, 0, null);
+        g.dispose();
+        return gray;
+    }
+
+    /**
+     * OCR output for each card: clean, then with typical misreads
+     * (O for 0, dropped and doubled spaces, stray symbols, broken lines).
+     */
+    public static List<String> ocrTexts() {
+        List<String> texts = new ArrayList<>();
+        for (String[] card : CARDS) {
+            String clean = "REPUBLIKA NG PILIPINAS\n" + card[0] + "\n"
+                    + "Apelyido/Last Name\n" + card[1] + "\n"
+                    + "Mga Pangalan/Given Names\n" + card[2] + "\n"
+                    + "Gitnang Apelyido/Middle Name\n" + card[3] + "\n"
+                    + "ID No. " + card[4] + "\n"
+                    + "Petsa ng Kapanganakan/Date of Birth\n" + card[5] + "\n"
+                    + "Tirahan/Address\n" + card[6] + "\n";
+            texts.add(clean);
+
+            String noisy = clean
+                    .replace("0", "O")
+                    .replace("Last Name", "Last  Narne")
+                    .replace(card[4], card[4].replace("-", " - "))
+                    .replace("\nTirahan", "\n|~ Tirahan")
+                    .replace("Date of Birth\n", "Date of Birth ");
+            texts.add(noisy);
+        }
+        return texts;
+    }
+
+    private static void drawCard(Graphics2D g, String[] card, int w, int h) {
+        g.setColor(new Color(236, 240, 244));
+        g.fillRoundRect(0, 0, w, h, w / 25, w / 25);
+
+        // Header band
+        g.setColor(new Color(30, 70, 140));
+        g.fillRect(0, h / 20, w, h / 7);
+        g.setColor(Color.WHITE);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(8, h / 16)));
+        g.drawString("REPUBLIKA NG PILIPINAS", w / 20, h / 20 + h / 12);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(6, h / 26)));
+        g.drawString(card[0], w / 20, h / 20 + h / 8);
+
+        // Photo
+        g.setColor(new Color(160, 150, 140));
+        g.fillRect(w / 20, h / 4, w / 4, (int) (h * 0.6));
+
+        // Fields
+        String[] labels = {"Apelyido/Last Name", "Mga Pangalan/Given Names", "Gitnang Apelyido/Middle Name",
+                "ID No.", "Petsa ng Kapanganakan/Date of Birth", "Tirahan/Address"};
+        String[] values = {card[1], card[2], card[3], card[4], card[5], card[6]};
+        int x = w / 3;
+        int y = h / 4;
+        int step = (int) (h * 0.115);
+        Font label = new Font(Font.SANS_SERIF, Font.ITALIC, Math.max(5, h / 40));
+        Font value = new Font(Font.SANS_SERIF, Font.BOLD, Math.max(7, h / 22));
+        for (int i = 0; i < labels.length; i++) {
+            g.setColor(new Color(90, 90, 100));
+            g.setFont(label);
+            g.drawString(labels[i], x, y + step * i);
+            g.setColor(new Color(15, 15, 20));
+            g.setFont(value);
+            g.drawString(values[i], x, y + step * i + step / 2);
+        }
+    }
+
+    private static void addNoise(BufferedImage img, Random random, int amplitude) {
+        byte[] data = ((java.awt.image.DataBufferByte) img.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < data.length; i++) {
+            int v = (data[i] & 0xFF) + (int) (random.nextGaussian() * amplitude);
+            data[i] = (byte) Math.max(0, Math.min(255, v));
+        }
+    }
+}